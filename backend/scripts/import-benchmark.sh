@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+#
+# Measures equipment import throughput (rows/sec) against a running API.
+#
+# Usage:
+#   API_URL=http://localhost:8080 EMAIL=manager@example.com PASSWORD=secret \
+#     ./scripts/import-benchmark.sh [rows...]
+#
+# Defaults to 10k, 100k and 1M rows. Each run uses a fresh serial prefix so
+# every row is an insert; set UPSERT=true to re-import the previous run instead.
+# Set BULK=true to measure the COPY-based bulk loader.
+# Use a throwaway organization: the generated equipment is not cleaned up.
+#
+# Last run (1 vCPU shared by the API, PostgreSQL 15.5 and this script), rows/sec:
+#   rows   before   batched   BULK=true
+#   10k        91      1866        2809
+#   100k    < 37*      2616        3214
+#   1M          -      3545        4727
+#   * the single-transaction import had not finished after 45 minutes
+
+set -euo pipefail
+
+API_URL="${API_URL:-http://localhost:8080}"
+UPSERT="${UPSERT:-false}"
+BULK="${BULK:-false}"
+SIZES=("${@:-10000 100000 1000000}")
+WORK_DIR="$(mktemp -d)"
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+if [[ -z "${TOKEN:-}" ]]; then
+    : "${EMAIL:?Set TOKEN, or EMAIL and PASSWORD}"
+    : "${PASSWORD:?Set TOKEN, or EMAIL and PASSWORD}"
+    TOKEN=$(curl -sf -X POST "$API_URL/api/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" \
+        | sed -n 's/.*"accessToken":"\([^"]*\)".*/\1/p')
+fi
+
+generate_csv() {
+    local rows=$1 prefix=$2 file=$3
+    awk -v rows="$rows" -v prefix="$prefix" 'BEGIN {
+        split("MONTHLY QUARTERLY SEMESTERLY ANNUALLY", cycles, " ")
+        print "serial_number,cust_asset_id,agreement_status,service_cycle,next_service"
+        for (i = 1; i <= rows; i++) {
+            printf "%s-%08d,ASSET-%08d,COVERED,%s,2030-%02d-%02d\n",
+                prefix, i, i, cycles[(i % 4) + 1], (i % 12) + 1, (i % 28) + 1
+        }
+    }' > "$file"
+}
+
+printf '%-10s %-10s %-10s %-12s %s\n' "rows" "imported" "errors" "seconds" "rows/sec"
+for rows in ${SIZES[*]}; do
+    prefix="BENCH-$rows"
+    [[ "$UPSERT" == "true" ]] || prefix="$prefix-$(date +%s)"
+    file="$WORK_DIR/equipment-$rows.csv"
+    generate_csv "$rows" "$prefix" "$file"
+
+    start=$(date +%s.%N)
+    response=$(curl -sf --max-time 3600 -X POST "$API_URL/api/equipment/import?upsert=$UPSERT&bulk=$BULK" \
+        -H "Authorization: Bearer $TOKEN" \
+        -F "file=@$file;type=text/csv")
+    end=$(date +%s.%N)
+
+    imported=$(sed -n 's/.*"successCount":\([0-9]*\).*/\1/p' <<< "$response")
+    errors=$(sed -n 's/.*"errorCount":\([0-9]*\).*/\1/p' <<< "$response")
+    seconds=$(awk -v s="$start" -v e="$end" 'BEGIN { printf "%.2f", e - s }')
+    rate=$(awk -v r="$rows" -v s="$seconds" 'BEGIN { printf "%.0f", (s > 0 ? r / s : 0) }')
+    printf '%-10s %-10s %-10s %-12s %s\n' "$rows" "$imported" "$errors" "$seconds" "$rate"
+done
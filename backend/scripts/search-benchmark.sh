@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+#
+# Measures equipment search latency with and without the pg_trgm indexes.
+#
+# Usage:
+#   PGHOST=localhost PGPORT=5433 PGDATABASE=parctrack PGUSER=parctrack PGPASSWORD=parctrack \
+#     ./scripts/search-benchmark.sh [term...]
+#
+# Loads ROWS (default 1M) equipment rows for a scratch organization and times the list
+# search (first page) and its count for each term: once with the old case-sensitive predicate
+# and no trigram indexes ("before"), and once with the lower(...) predicate the indexes serve
+# ("after"). Everything runs in one transaction that is rolled back, so nothing is left
+# behind. The index drop takes an exclusive lock on equipment meanwhile, so point this at a
+# benchmark database, not a live one.
+#
+# Last run (1 vCPU shared by PostgreSQL 15.5 and the client, 1M rows on top of ~1.2M others),
+# median ms over 5 runs, before -> after:
+#   4f2a   page 2275 -> 8.2    count 1483 -> 6.9
+#   00012  page 2074 -> 59.4   count 2209 -> 62.6
+#   QR-9b  page 1643 -> 29.7   count 1478 -> 21.1
+#   zzzz   page 3186 -> 1.9    count 1511 -> 1.7
+
+set -euo pipefail
+
+export PGHOST="${PGHOST:-localhost}"
+export PGPORT="${PGPORT:-5433}"
+export PGDATABASE="${PGDATABASE:-parctrack}"
+export PGUSER="${PGUSER:-parctrack}"
+export PGPASSWORD="${PGPASSWORD:-parctrack}"
+ROWS="${ROWS:-1000000}"
+RUNS="${RUNS:-5}"
+TERMS=("${@:-4f2a 00012 QR-9b zzzz}")
+SQL_FILE="$(mktemp)"
+trap 'rm -f "$SQL_FILE"' EXIT
+
+tenant_filter="(e.organization_id = :'org_id' OR c.organization_id = :'org_id') AND e.deleted_at IS NULL"
+from_clause="FROM equipment e LEFT JOIN sites s ON s.id = e.site_id LEFT JOIN customers c ON c.id = s.customer_id"
+
+time_query() {
+    local label=$1 query=$2
+    for ((run = 1; run <= RUNS; run++)); do
+        echo "\\echo '@@ $label'"
+        echo "EXPLAIN (ANALYZE, COSTS OFF) $query;"
+    done
+}
+
+{
+    echo "\\set ON_ERROR_STOP on"
+    echo "BEGIN;"
+    echo "CREATE EXTENSION IF NOT EXISTS pg_trgm;"
+    echo "INSERT INTO organizations (id, name, created_at) VALUES (gen_random_uuid(), 'search-benchmark', now()) RETURNING id AS org_id \\gset"
+    echo "INSERT INTO equipment (id, organization_id, serial_number, cust_asset_id, qr_code_value,
+              agreement_status, service_cycle, lifecycle_status, created_at)
+          SELECT gen_random_uuid(), :'org_id', 'SN-' || upper(md5(i::text)), 'ASSET-' || lpad(i::text, 8, '0'),
+                 'QR-' || md5((i * 7)::text), 'COVERED', 'MONTHLY', 'ACTIVE', now()
+          FROM generate_series(1, $ROWS) i;"
+    echo "CREATE INDEX IF NOT EXISTS idx_equipment_serial_trgm ON equipment USING gin (lower(serial_number) gin_trgm_ops);"
+    echo "CREATE INDEX IF NOT EXISTS idx_equipment_cust_asset_id_trgm ON equipment USING gin (lower(cust_asset_id) gin_trgm_ops);"
+    echo "CREATE INDEX IF NOT EXISTS idx_equipment_qr_code_trgm ON equipment USING gin (lower(qr_code_value) gin_trgm_ops);"
+    echo "ANALYZE equipment;"
+
+    for term in ${TERMS[*]}; do
+        lower_match="(lower(e.serial_number) LIKE lower('%$term%') OR lower(e.cust_asset_id) LIKE lower('%$term%') OR lower(e.qr_code_value) LIKE lower('%$term%'))"
+        time_query "after $term page" "SELECT e.* $from_clause WHERE $tenant_filter AND $lower_match ORDER BY e.serial_number, e.id LIMIT 20"
+        time_query "after $term count" "SELECT count(*) $from_clause WHERE $tenant_filter AND $lower_match"
+    done
+
+    echo "DROP INDEX idx_equipment_serial_trgm, idx_equipment_cust_asset_id_trgm, idx_equipment_qr_code_trgm;"
+    for term in ${TERMS[*]}; do
+        like_match="(e.serial_number LIKE '%$term%' OR e.cust_asset_id LIKE '%$term%' OR e.qr_code_value LIKE '%$term%')"
+        time_query "before $term page" "SELECT e.* $from_clause WHERE $tenant_filter AND $like_match ORDER BY e.serial_number, e.id LIMIT 20"
+        time_query "before $term count" "SELECT count(*) $from_clause WHERE $tenant_filter AND $like_match"
+    done
+    echo "ROLLBACK;"
+} > "$SQL_FILE"
+
+echo "Loading $ROWS rows into a rolled-back transaction on $PGHOST:$PGPORT/$PGDATABASE..." >&2
+
+# Median execution time per label, in milliseconds
+psql -X -q -f "$SQL_FILE" | awk '
+    /^@@ / { label = substr($0, 4); next }
+    /Execution Time:/ { times[label] = times[label] " " $3; if (!(label in seen)) { seen[label] = 1; order[++n] = label } }
+    END {
+        printf "%-32s %12s\n", "query", "median ms"
+        for (i = 1; i <= n; i++) {
+            k = split(substr(times[order[i]], 2), t, " ")
+            for (a = 1; a <= k; a++) for (b = a + 1; b <= k; b++) if (t[b] + 0 < t[a] + 0) { x = t[a]; t[a] = t[b]; t[b] = x }
+            printf "%-32s %12.2f\n", order[i], t[int((k + 1) / 2)]
+        }
+    }'
@@ -2,9 +2,12 @@ package com.parctrack.application.customer;
 
 import com.parctrack.application.audit.AuditService;
 import com.parctrack.application.dto.customer.*;
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.customer.Customer;
 import com.parctrack.domain.customer.CustomerRepository;
 import com.parctrack.domain.equipment.EquipmentRepository;
+import com.parctrack.domain.equipment.StoplightDelta;
+import com.parctrack.domain.equipment.StoplightService;
 import com.parctrack.domain.organization.Organization;
 import com.parctrack.domain.organization.OrganizationRepository;
 import com.parctrack.domain.site.Site;
@@ -12,6 +15,7 @@ import com.parctrack.domain.site.SiteRepository;
 import com.parctrack.infrastructure.security.TenantContext;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -29,19 +33,25 @@ public class CustomerService {
     private final SiteRepository siteRepository;
     private final EquipmentRepository equipmentRepository;
     private final OrganizationRepository organizationRepository;
+    private final StoplightService stoplightService;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CustomerService(
             CustomerRepository customerRepository,
             SiteRepository siteRepository,
             EquipmentRepository equipmentRepository,
             OrganizationRepository organizationRepository,
-            AuditService auditService) {
+            StoplightService stoplightService,
+            AuditService auditService,
+            ApplicationEventPublisher eventPublisher) {
         this.customerRepository = customerRepository;
         this.siteRepository = siteRepository;
         this.equipmentRepository = equipmentRepository;
         this.organizationRepository = organizationRepository;
+        this.stoplightService = stoplightService;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -89,6 +99,8 @@ public class CustomerService {
 
         customer = customerRepository.save(customer);
         auditService.logAction("CUSTOMER_CREATED", "Customer", customer.getId());
+        // No equipment is placed at a new customer yet, so stoplight counts do not move
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId, null, new StoplightDelta()));
 
         return CustomerDto.from(customer);
     }
@@ -105,7 +117,12 @@ public class CustomerService {
             }
             customer.setName(request.name());
         }
+        StoplightDelta delta = new StoplightDelta();
         if (request.agreementStatus() != null) {
+            if (request.agreementStatus() != customer.getAgreementStatus()) {
+                // The customer's equipment takes the new agreement; grouped before the change is flushed
+                delta.changeAgreement(equipmentRepository.findStoplightBucketsByCustomerId(id), request.agreementStatus());
+            }
             customer.setAgreementStatus(request.agreementStatus());
         }
         if (request.contractEndDate() != null) {
@@ -114,6 +131,7 @@ public class CustomerService {
 
         customer = customerRepository.save(customer);
         auditService.logAction("CUSTOMER_UPDATED", "Customer", customer.getId());
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId, null, delta));
 
         return CustomerDto.from(customer);
     }
@@ -128,7 +146,8 @@ public class CustomerService {
         customer.softDelete();
         customerRepository.save(customer);
 
-        // Soft delete all sites and orphan their equipment
+        // Soft delete all sites and orphan their equipment, which falls back to its own agreement
+        StoplightDelta delta = new StoplightDelta();
         List<Site> sites = siteRepository.findByCustomerIdAndDeletedAtIsNull(id);
         for (Site site : sites) {
             site.softDelete();
@@ -137,12 +156,15 @@ public class CustomerService {
             // Orphan equipment by setting site to null
             var equipmentList = equipmentRepository.findBySiteId(site.getId());
             for (var equipment : equipmentList) {
+                delta.subtract(stoplightService.bucketOf(equipment));
                 equipment.setSite(null);
                 equipmentRepository.save(equipment);
+                delta.add(stoplightService.bucketOf(equipment));
             }
         }
 
         auditService.logAction("CUSTOMER_DELETED", "Customer", customer.getId(),
                 "Cascaded soft-delete to " + sites.size() + " sites");
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId, null, delta));
     }
 }
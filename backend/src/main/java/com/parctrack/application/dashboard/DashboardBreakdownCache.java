@@ -0,0 +1,17 @@
+package com.parctrack.application.dashboard;
+
+import com.parctrack.domain.equipment.StoplightBreakdownRow;
+import com.parctrack.infrastructure.config.DashboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Last computed breakdown rows per tenant, all of them, so any top-N is cut from the same entry
+@Service
+public class DashboardBreakdownCache extends TenantDayCache<List<StoplightBreakdownRow>> {
+
+    public DashboardBreakdownCache(DashboardProperties properties, MeterRegistry meterRegistry) {
+        super("dashboard.breakdown", properties, meterRegistry);
+    }
+}
@@ -1,64 +1,160 @@
 package com.parctrack.application.dashboard;
 
+import com.parctrack.application.dto.dashboard.ComplianceTrendPoint;
+import com.parctrack.application.dto.dashboard.DashboardBreakdown;
+import com.parctrack.application.dto.dashboard.DashboardBreakdownEntry;
 import com.parctrack.application.dto.dashboard.DashboardSummary;
+import com.parctrack.domain.compliance.ComplianceSnapshot;
+import com.parctrack.domain.compliance.ComplianceSnapshotRepository;
 import com.parctrack.domain.equipment.*;
+import com.parctrack.infrastructure.config.DashboardProperties;
 import com.parctrack.infrastructure.security.TenantContext;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 public class DashboardService {
 
+    private static final int MAX_TREND_YEARS = 3;
+
+    // Most red equipment first, then the lowest share of green, then by name
+    private static final Comparator<StoplightBreakdownRow> WORST_FIRST = Comparator
+            .comparingLong((StoplightBreakdownRow row) -> row.counts().red()).reversed()
+            .thenComparingDouble(row -> compliancePercentage(row.counts().green(), row.counts().total()))
+            .thenComparing(StoplightBreakdownRow::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
     private final EquipmentRepository equipmentRepository;
-    private final StoplightService stoplightService;
+    private final ComplianceSnapshotRepository complianceSnapshotRepository;
+    private final DashboardSummaryCache summaryCache;
+    private final DashboardBreakdownCache breakdownCache;
+    private final StoplightCounters stoplightCounters;
+    private final boolean countersEnabled;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public DashboardService(EquipmentRepository equipmentRepository, StoplightService stoplightService) {
+    public DashboardService(EquipmentRepository equipmentRepository,
+                            ComplianceSnapshotRepository complianceSnapshotRepository,
+                            DashboardSummaryCache summaryCache, DashboardBreakdownCache breakdownCache,
+                            StoplightCounters stoplightCounters,
+                            DashboardProperties properties, PlatformTransactionManager transactionManager) {
         this.equipmentRepository = equipmentRepository;
-        this.stoplightService = stoplightService;
+        this.complianceSnapshotRepository = complianceSnapshotRepository;
+        this.summaryCache = summaryCache;
+        this.breakdownCache = breakdownCache;
+        this.stoplightCounters = stoplightCounters;
+        this.countersEnabled = properties.isCountersEnabled();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
+    // Not @Transactional: a cache hit must not take a connection from the pool
     public DashboardSummary getSummary() {
         UUID orgId = TenantContext.getCurrentTenant();
         LocalDate today = LocalDate.now();
-        LocalDate warningDate = today.plusDays(15);
+        return summaryCache.get(orgId, today, () -> toSummary(countStoplightStatuses(orgId, today)));
+    }
 
-        long totalEquipment = equipmentRepository.countByOrganizationId(orgId);
-        long overdueCount = equipmentRepository.countByOrganizationIdAndNextServiceBefore(orgId, today);
-        long warningCount = equipmentRepository.countByOrganizationIdAndNextServiceBetween(orgId, today, warningDate);
+    /**
+     * Stoplight counts per customer, site and equipment type, worst offenders first. With
+     * {@code top} set, each list is cut to that many entries. Not @Transactional, as above.
+     */
+    public DashboardBreakdown getBreakdown(Integer top) {
+        UUID orgId = TenantContext.getCurrentTenant();
+        if (top != null && top < 1) {
+            throw new BusinessException("top must be at least 1");
+        }
+
+        LocalDate today = LocalDate.now();
+        List<StoplightBreakdownRow> rows = breakdownCache.get(orgId, today, () -> readOnlyTransaction.execute(
+                status -> equipmentRepository.findStoplightBreakdown(
+                        orgId, today, StoplightService.warningDate(today), StoplightService.RED_AGREEMENT_STATUSES)));
+        return new DashboardBreakdown(
+                toBreakdownEntries(rows, BreakdownDimension.CUSTOMER, top),
+                toBreakdownEntries(rows, BreakdownDimension.SITE, top),
+                toBreakdownEntries(rows, BreakdownDimension.EQUIPMENT_TYPE, top));
+    }
 
-        Page<Equipment> equipmentPage = equipmentRepository.findByOrganizationId(orgId, PageRequest.of(0, 5000));
+    /**
+     * Daily compliance of the organization, or of one of its customers, read from the snapshots
+     * written by ComplianceSnapshotJob. Days without a snapshot are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<ComplianceTrendPoint> getTrend(LocalDate from, LocalDate to, UUID customerId) {
+        UUID orgId = TenantContext.getCurrentTenant();
+        if (from.isAfter(to)) {
+            throw new BusinessException("Trend start date must not be after its end date");
+        }
+        if (from.isBefore(to.minusYears(MAX_TREND_YEARS))) {
+            throw new BusinessException("Trend range cannot exceed " + MAX_TREND_YEARS + " years");
+        }
 
-        long greenCount = 0;
-        long yellowCount = 0;
-        long redCount = 0;
+        List<ComplianceSnapshot> snapshots = customerId != null
+                ? complianceSnapshotRepository.findCustomerTrend(orgId, customerId, from, to)
+                : complianceSnapshotRepository.findOrganizationTrend(orgId, from, to);
+        return snapshots.stream()
+                .map(snapshot -> new ComplianceTrendPoint(
+                        snapshot.getSnapshotDate(),
+                        snapshot.getTotalCount(),
+                        snapshot.getGreenCount(),
+                        snapshot.getYellowCount(),
+                        snapshot.getRedCount(),
+                        snapshot.getOverdueCount(),
+                        snapshot.getWarningCount(),
+                        compliancePercentage(snapshot.getGreenCount(), snapshot.getTotalCount())))
+                .toList();
+    }
 
-        for (Equipment equipment : equipmentPage.getContent()) {
-            StoplightStatus status = stoplightService.calculateStatus(equipment);
-            switch (status) {
-                case GREEN -> greenCount++;
-                case YELLOW -> yellowCount++;
-                case RED -> redCount++;
-            }
+    private StoplightCounts countStoplightStatuses(UUID orgId, LocalDate today) {
+        if (countersEnabled) {
+            return stoplightCounters.get(orgId, today);
         }
+        // Single aggregate with the StoplightService rules, so no entities are loaded
+        return readOnlyTransaction.execute(status -> equipmentRepository.countStoplightStatuses(
+                orgId, today, StoplightService.warningDate(today), StoplightService.RED_AGREEMENT_STATUSES));
+    }
 
-        double compliancePercentage = totalEquipment > 0
-                ? (greenCount * 100.0) / totalEquipment
-                : 100.0;
+    private List<DashboardBreakdownEntry> toBreakdownEntries(List<StoplightBreakdownRow> rows,
+                                                             BreakdownDimension dimension, Integer top) {
+        return rows.stream()
+                .filter(row -> row.dimension() == dimension)
+                .sorted(WORST_FIRST)
+                .limit(top != null ? top : Long.MAX_VALUE)
+                .map(row -> new DashboardBreakdownEntry(
+                        row.id(),
+                        row.name(),
+                        row.customerName(),
+                        row.counts().total(),
+                        row.counts().green(),
+                        row.counts().yellow(),
+                        row.counts().red(),
+                        row.counts().overdue(),
+                        row.counts().warning(),
+                        compliancePercentage(row.counts().green(), row.counts().total())))
+                .toList();
+    }
 
+    private DashboardSummary toSummary(StoplightCounts counts) {
         return new DashboardSummary(
-                totalEquipment,
-                greenCount,
-                yellowCount,
-                redCount,
-                overdueCount,
-                warningCount,
-                Math.round(compliancePercentage * 100.0) / 100.0
+                counts.total(),
+                counts.green(),
+                counts.yellow(),
+                counts.red(),
+                counts.overdue(),
+                counts.warning(),
+                compliancePercentage(counts.green(), counts.total())
         );
     }
+
+    // Share of green equipment, in percent with two decimals
+    private static double compliancePercentage(long green, long total) {
+        double compliancePercentage = total > 0 ? (green * 100.0) / total : 100.0;
+        return Math.round(compliancePercentage * 100.0) / 100.0;
+    }
 }
@@ -0,0 +1,15 @@
+package com.parctrack.application.dashboard;
+
+import com.parctrack.application.dto.dashboard.DashboardSummary;
+import com.parctrack.infrastructure.config.DashboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+// Last computed DashboardSummary per tenant
+@Service
+public class DashboardSummaryCache extends TenantDayCache<DashboardSummary> {
+
+    public DashboardSummaryCache(DashboardProperties properties, MeterRegistry meterRegistry) {
+        super("dashboard.summary", properties, meterRegistry);
+    }
+}
@@ -0,0 +1,298 @@
+package com.parctrack.application.dashboard;
+
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentRepository;
+import com.parctrack.domain.equipment.StoplightBucket;
+import com.parctrack.domain.equipment.StoplightCounts;
+import com.parctrack.domain.equipment.StoplightService;
+import com.parctrack.domain.equipment.StoplightStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-tenant stoplight counts kept in memory, so a dashboard read does not touch the database.
+ * Each tenant holds its equipment as {@link StoplightBucket}s (count per effective agreement and
+ * next service date) plus the counts those buckets give on the current day.
+ *
+ * <ul>
+ *   <li>Writes adjust the buckets from the {@link TenantDataChangedEvent}'s delta after commit;
+ *       a write without a delta unloads the tenant, which is recounted on its next read.</li>
+ *   <li>When the day changes only the buckets dated on the old day (now overdue) and on the new
+ *       last warning day (now in the window) change status, so they alone are re-evaluated.</li>
+ *   <li>{@link #reconcile} recounts loaded tenants to correct drift, e.g. from concurrent writes
+ *       to the same equipment or writes made by other instances.</li>
+ * </ul>
+ *
+ * A recount only replaces a tenant's buckets if no write reached its commit while it ran and none
+ * is still between commit and its delta being applied, since it cannot tell whether the database
+ * already reflected that write. Writes are announced before they commit for this reason.
+ */
+@Service
+public class StoplightCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoplightCounters.class);
+
+    // Beyond this many days, a full re-evaluation is cheaper than stepping day by day
+    private static final long MAX_ROLL_DAYS = 31;
+
+    private final EquipmentRepository equipmentRepository;
+    private final StoplightService stoplightService;
+    private final Map<UUID, TenantCounters> tenants = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter reconciled;
+    private final Counter drifted;
+
+    public StoplightCounters(EquipmentRepository equipmentRepository, StoplightService stoplightService,
+                             MeterRegistry meterRegistry) {
+        this.equipmentRepository = equipmentRepository;
+        this.stoplightService = stoplightService;
+
+        this.loads = Counter.builder("dashboard.stoplight.counters.loads").register(meterRegistry);
+        this.reconciled = Counter.builder("dashboard.stoplight.counters.reconciliations").tag("result", "ok").register(meterRegistry);
+        this.drifted = Counter.builder("dashboard.stoplight.counters.reconciliations").tag("result", "drift").register(meterRegistry);
+        Gauge.builder("dashboard.stoplight.counters.tenants", tenants,
+                map -> map.values().stream().filter(TenantCounters::isLoaded).count()).register(meterRegistry);
+    }
+
+    public StoplightCounts get(UUID organizationId, LocalDate today) {
+        TenantCounters counters = tenants.computeIfAbsent(organizationId, id -> new TenantCounters());
+        long epoch;
+        synchronized (counters) {
+            if (counters.isLoaded()) {
+                return counters.countsOn(today);
+            }
+            epoch = counters.epoch;
+        }
+
+        List<StoplightBucket> buckets = equipmentRepository.findStoplightBuckets(organizationId);
+        loads.increment();
+        synchronized (counters) {
+            if (counters.unchangedSince(epoch)) {
+                counters.load(buckets, today);
+                return counters.countsOn(today);
+            }
+        }
+        // A write committed meanwhile or is committing; answer from the recount without keeping it
+        TenantCounters detached = new TenantCounters();
+        detached.load(buckets, today);
+        return detached.countsOn(today);
+    }
+
+    // Created even when not loaded: a recount starting before this write commits must see it pending
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTenantDataCommitting(TenantDataChangedEvent event) {
+        TenantCounters counters = tenants.computeIfAbsent(event.organizationId(), id -> new TenantCounters());
+        synchronized (counters) {
+            counters.epoch++;
+            counters.pendingWrites.add(event);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE) // before DashboardSummaryCache drops the summary built from these counts
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        TenantCounters counters = tenants.get(event.organizationId());
+        if (counters == null) {
+            return;
+        }
+        synchronized (counters) {
+            boolean announced = counters.pendingWrites.remove(event);
+            counters.epoch++;
+            // Without a transaction the write was not announced, so a recount may already include it
+            if (event.stoplightDelta() == null || !announced) {
+                counters.unload();
+            } else if (counters.isLoaded()) {
+                event.stoplightDelta().buckets().forEach(counters::apply);
+            }
+        }
+    }
+
+    // Rolled back after it was announced, or committed and already applied above
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onTenantDataCompleted(TenantDataChangedEvent event) {
+        TenantCounters counters = tenants.get(event.organizationId());
+        if (counters == null) {
+            return;
+        }
+        synchronized (counters) {
+            counters.pendingWrites.remove(event);
+        }
+    }
+
+    // Moves every loaded tenant to the given day
+    public void rollOver(LocalDate today) {
+        for (TenantCounters counters : tenants.values()) {
+            synchronized (counters) {
+                if (counters.isLoaded()) {
+                    counters.rollTo(today);
+                }
+            }
+        }
+    }
+
+    // Recounts every loaded tenant and replaces buckets that drifted from the database
+    public void reconcile(LocalDate today) {
+        for (Map.Entry<UUID, TenantCounters> entry : tenants.entrySet()) {
+            TenantCounters counters = entry.getValue();
+            long epoch;
+            synchronized (counters) {
+                if (!counters.isLoaded()) {
+                    continue;
+                }
+                epoch = counters.epoch;
+            }
+
+            List<StoplightBucket> buckets = equipmentRepository.findStoplightBuckets(entry.getKey());
+            synchronized (counters) {
+                if (!counters.unchangedSince(epoch) || !counters.isLoaded()) {
+                    continue;
+                }
+                if (counters.matches(buckets)) {
+                    reconciled.increment();
+                } else {
+                    drifted.increment();
+                    StoplightCounts before = counters.countsOn(today);
+                    counters.load(buckets, today);
+                    logger.warn("Stoplight counters of organization {} drifted: {} corrected to {}",
+                            entry.getKey(), before, counters.countsOn(today));
+                }
+            }
+        }
+    }
+
+    private record Key(AgreementStatus agreementStatus, LocalDate nextService) {
+    }
+
+    private final class TenantCounters {
+
+        // Bumped by every event, so a recount can tell whether it raced a write
+        private long epoch;
+        // Writes announced before commit whose delta is not applied yet; by identity, since two
+        // writes can publish equal events
+        private final Set<TenantDataChangedEvent> pendingWrites = Collections.newSetFromMap(new IdentityHashMap<>());
+        private Map<Key, Long> buckets;
+        private LocalDate day;
+        private long total;
+        private long green;
+        private long yellow;
+        private long red;
+        private long overdue;
+        private long warning;
+
+        boolean isLoaded() {
+            return buckets != null;
+        }
+
+        boolean unchangedSince(long loadEpoch) {
+            return epoch == loadEpoch && pendingWrites.isEmpty();
+        }
+
+        void unload() {
+            buckets = null;
+        }
+
+        void load(List<StoplightBucket> rows, LocalDate today) {
+            buckets = new HashMap<>();
+            for (StoplightBucket row : rows) {
+                buckets.merge(new Key(row.agreementStatus(), row.nextService()), row.count(), Long::sum);
+            }
+            evaluate(today);
+        }
+
+        boolean matches(List<StoplightBucket> rows) {
+            Map<Key, Long> recounted = new HashMap<>();
+            for (StoplightBucket row : rows) {
+                recounted.merge(new Key(row.agreementStatus(), row.nextService()), row.count(), Long::sum);
+            }
+            return recounted.equals(buckets);
+        }
+
+        void apply(StoplightBucket change) {
+            Key key = new Key(change.agreementStatus(), change.nextService());
+            long count = buckets.getOrDefault(key, 0L) + change.count();
+            if (count == 0) {
+                buckets.remove(key);
+            } else {
+                buckets.put(key, count);
+            }
+            add(key, change.count(), day);
+        }
+
+        StoplightCounts countsOn(LocalDate today) {
+            if (!today.equals(day)) {
+                rollTo(today);
+            }
+            return new StoplightCounts(total, green, yellow, red, overdue, warning);
+        }
+
+        void rollTo(LocalDate today) {
+            long days = ChronoUnit.DAYS.between(day, today);
+            if (days < 0 || days > MAX_ROLL_DAYS) {
+                evaluate(today);
+                return;
+            }
+            for (; days > 0; days--) {
+                LocalDate next = day.plusDays(1);
+                // Equipment due on the old day is now overdue; equipment due on the new last
+                // warning day enters the window. No other date changes status overnight.
+                reclassify(day, next);
+                reclassify(StoplightService.warningDate(next), next);
+                day = next;
+            }
+        }
+
+        private void reclassify(LocalDate nextService, LocalDate next) {
+            for (AgreementStatus agreementStatus : AgreementStatus.values()) {
+                Key key = new Key(agreementStatus, nextService);
+                Long count = buckets.get(key);
+                if (count != null) {
+                    add(key, -count, day);
+                    add(key, count, next);
+                }
+            }
+        }
+
+        private void evaluate(LocalDate today) {
+            day = today;
+            total = green = yellow = red = overdue = warning = 0;
+            buckets.forEach((key, count) -> add(key, count, today));
+        }
+
+        private void add(Key key, long count, LocalDate on) {
+            StoplightStatus status = stoplightService.calculateStatus(key.agreementStatus(), key.nextService(), on);
+            total += count;
+            switch (status) {
+                case GREEN -> green += count;
+                case YELLOW -> yellow += count;
+                case RED -> red += count;
+            }
+            LocalDate nextService = key.nextService();
+            if (nextService != null && nextService.isBefore(on)) {
+                overdue += count;
+            } else if (nextService != null && !nextService.isAfter(StoplightService.warningDate(on))) {
+                warning += count;
+            }
+        }
+    }
+}
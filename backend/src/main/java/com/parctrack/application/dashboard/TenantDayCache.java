@@ -0,0 +1,83 @@
+package com.parctrack.application.dashboard;
+
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.infrastructure.config.DashboardProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Last computed dashboard value per tenant. An entry is only served for the day it was computed
+ * on, since statuses move with the date, and until the tenant's next write: every write path
+ * publishes {@link TenantDataChangedEvent}, which bumps the tenant's generation after commit.
+ * The TTL bounds staleness from writes made by other instances only for values recomputed from
+ * the database. With counters enabled the summary is recomputed from {@link StoplightCounters},
+ * which only see other instances' writes at their hourly reconciliation.
+ */
+abstract class TenantDayCache<T> {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer recomputeTimer;
+
+    protected TenantDayCache(String meterPrefix, DashboardProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isCacheEnabled();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.getCacheTtlSeconds());
+
+        this.hits = Counter.builder(meterPrefix + ".cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(meterPrefix + ".cache.requests").tag("result", "miss").register(meterRegistry);
+        this.recomputeTimer = Timer.builder(meterPrefix + ".recompute").register(meterRegistry);
+        Gauge.builder(meterPrefix + ".cache.hit.ratio", this, TenantDayCache::hitRatio).register(meterRegistry);
+    }
+
+    public T get(UUID organizationId, LocalDate today, Supplier<T> compute) {
+        if (!enabled) {
+            return recomputeTimer.record(compute);
+        }
+        // Read before computing: a write committed meanwhile leaves the entry behind the tenant
+        long generation = generations.computeIfAbsent(organizationId, id -> new AtomicLong()).get();
+        Entry<T> entry = entries.get(organizationId);
+        if (entry != null && entry.isValid(generation, today)) {
+            hits.increment();
+            return entry.value();
+        }
+
+        misses.increment();
+        T value = recomputeTimer.record(compute);
+        entries.put(organizationId, new Entry<>(value, today, generation, System.nanoTime() + ttlNanos));
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        generations.computeIfAbsent(event.organizationId(), id -> new AtomicLong()).incrementAndGet();
+        entries.remove(event.organizationId());
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0;
+    }
+
+    private record Entry<T>(T value, LocalDate day, long generation, long expiresAt) {
+
+        boolean isValid(long currentGeneration, LocalDate today) {
+            return generation == currentGeneration && day.equals(today) && System.nanoTime() - expiresAt < 0;
+        }
+    }
+}
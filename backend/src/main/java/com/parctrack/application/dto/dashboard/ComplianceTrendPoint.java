@@ -0,0 +1,14 @@
+package com.parctrack.application.dto.dashboard;
+
+import java.time.LocalDate;
+
+public record ComplianceTrendPoint(
+        LocalDate date,
+        long totalEquipment,
+        long greenCount,
+        long yellowCount,
+        long redCount,
+        long overdueCount,
+        long warningCount,
+        double compliancePercentage
+) {}
@@ -0,0 +1,9 @@
+package com.parctrack.application.dto.dashboard;
+
+import java.util.List;
+
+public record DashboardBreakdown(
+        List<DashboardBreakdownEntry> customers,
+        List<DashboardBreakdownEntry> sites,
+        List<DashboardBreakdownEntry> equipmentTypes
+) {}
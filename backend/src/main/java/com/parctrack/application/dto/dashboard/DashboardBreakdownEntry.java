@@ -0,0 +1,16 @@
+package com.parctrack.application.dto.dashboard;
+
+import java.util.UUID;
+
+public record DashboardBreakdownEntry(
+        UUID id,
+        String name,
+        String customerName,
+        long totalEquipment,
+        long greenCount,
+        long yellowCount,
+        long redCount,
+        long overdueCount,
+        long warningCount,
+        double compliancePercentage
+) {}
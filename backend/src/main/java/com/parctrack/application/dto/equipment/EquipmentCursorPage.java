@@ -0,0 +1,11 @@
+package com.parctrack.application.dto.equipment;
+
+import java.util.List;
+
+public record EquipmentCursorPage(
+        List<EquipmentDto> content,
+        int size,
+        boolean hasNext,
+        String nextCursor,
+        Long totalElements
+) {}
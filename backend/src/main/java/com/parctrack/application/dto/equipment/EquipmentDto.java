@@ -42,6 +42,12 @@ public record EquipmentDto(
             String name
     ) {}
 
+    public EquipmentDto withStoplightStatus(StoplightStatus stoplightStatus) {
+        return new EquipmentDto(id, serialNumber, custAssetId, qrCodeValue, agreementStatus, lifecycleStatus,
+                serviceCycle, lastService, nextService, nextServiceOverride, stoplightStatus, provisional,
+                provisionalExpiresAt, predecessorId, site, equipmentType, createdAt, updatedAt);
+    }
+
     public static EquipmentDto from(Equipment equipment, StoplightStatus stoplightStatus) {
         SiteInfo siteInfo = null;
         if (equipment.getSite() != null) {
@@ -3,6 +3,7 @@ package com.parctrack.application.dto.equipment;
 import com.parctrack.domain.equipment.AgreementStatus;
 import com.parctrack.domain.equipment.LifecycleStatus;
 import com.parctrack.domain.equipment.ServiceCycle;
+import com.parctrack.domain.equipment.StoplightStatus;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -16,6 +17,7 @@ public record EquipmentFilterRequest(
         UUID siteId,
         UUID equipmentTypeId,
         LifecycleStatus lifecycleStatus,
+        StoplightStatus stoplightStatus,
         int page,
         int size,
         String sortBy,
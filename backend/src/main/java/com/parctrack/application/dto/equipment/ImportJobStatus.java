@@ -0,0 +1,68 @@
+package com.parctrack.application.dto.equipment;
+
+import com.parctrack.application.equipment.ImportJob;
+import com.parctrack.application.equipment.ImportProgress;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+public record ImportJobStatus(
+        UUID jobId,
+        ImportJob.Status status,
+        String filename,
+        int rowsProcessed,
+        int successCount,
+        int errorCount,
+        Double percentComplete,
+        double rowsPerSecond,
+        Long etaSeconds,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String message
+) {
+    public static ImportJobStatus from(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+        int rowsProcessed = progress.getRowsProcessed();
+
+        double rowsPerSecond = 0;
+        Double percentComplete = null;
+        Long etaSeconds = null;
+
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            double elapsedSeconds = Duration.between(job.getStartedAt(), end).toMillis() / 1000.0;
+            if (elapsedSeconds > 0) {
+                rowsPerSecond = Math.round(rowsProcessed / elapsedSeconds * 10) / 10.0;
+            }
+
+            if (job.isFinished()) {
+                percentComplete = 100.0;
+                etaSeconds = 0L;
+            } else {
+                double fraction = progress.getFractionComplete();
+                if (fraction > 0) {
+                    percentComplete = Math.round(fraction * 1000) / 10.0;
+                    etaSeconds = Math.round(elapsedSeconds * (1 - fraction) / fraction);
+                }
+            }
+        }
+
+        return new ImportJobStatus(
+                job.getId(),
+                job.getStatus(),
+                job.getFilename(),
+                rowsProcessed,
+                progress.getSuccessCount(),
+                progress.getErrorCount(),
+                percentComplete,
+                rowsPerSecond,
+                etaSeconds,
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getFailureMessage()
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package com.parctrack.application.equipment;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal RFC 4180 writer for exports. Fields are written straight to the underlying writer
+ * and only quoted when they contain a separator, quote or line break, so plain values do not
+ * allocate per field.
+ */
+final class CsvRowWriter {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    CsvRowWriter(Writer out) {
+        this.out = out;
+    }
+
+    CsvRowWriter field(String value) throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+        return this;
+    }
+
+    CsvRowWriter field(Object value) throws IOException {
+        return field(value != null ? value.toString() : null);
+    }
+
+    void endRow() throws IOException {
+        out.write("\r\n");
+        firstField = true;
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
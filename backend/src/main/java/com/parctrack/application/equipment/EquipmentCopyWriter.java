@@ -0,0 +1,189 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.domain.organization.Organization;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Bulk-load writer for large imports. Rows are streamed into a temporary staging table with
+ * PostgreSQL's {@code COPY} protocol and merged into {@code equipment} with a single
+ * {@code INSERT ... ON CONFLICT} on {@code uk_equipment_org_serial}. Everything runs in one
+ * transaction, so the import is applied completely or not at all.
+ */
+@Service
+public class EquipmentCopyWriter {
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE equipment_import_staging (
+                row_number integer NOT NULL,
+                serial_number varchar(255) PRIMARY KEY,
+                cust_asset_id varchar(255),
+                agreement_status varchar(50),
+                service_cycle varchar(50),
+                next_service date
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY equipment_import_staging (row_number, serial_number, cust_asset_id, agreement_status, service_cycle, next_service)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    private static final String MERGE_INSERT = """
+            WITH merged AS (
+                INSERT INTO equipment (id, organization_id, serial_number, cust_asset_id, agreement_status, service_cycle,
+                                       next_service, lifecycle_status, is_provisional, next_service_override, created_at, updated_at)
+                SELECT gen_random_uuid(), ?, s.serial_number, s.cust_asset_id, COALESCE(s.agreement_status, 'PENDING'),
+                       COALESCE(s.service_cycle, 'QUARTERLY'), s.next_service, 'ACTIVE', false, false, now(), now()
+                FROM equipment_import_staging s
+                ON CONFLICT (organization_id, serial_number) %s
+                RETURNING serial_number
+            )
+            SELECT s.row_number, s.serial_number
+            FROM equipment_import_staging s
+            WHERE NOT EXISTS (SELECT 1 FROM merged m WHERE m.serial_number = s.serial_number)
+            ORDER BY s.row_number
+            """;
+
+    // Columns missing from the file keep their current value; soft-deleted equipment is not revived
+    private static final String ON_CONFLICT_UPDATE = """
+            DO UPDATE SET (cust_asset_id, agreement_status, service_cycle, next_service, updated_at) = (
+                SELECT COALESCE(s.cust_asset_id, equipment.cust_asset_id),
+                       COALESCE(s.agreement_status, equipment.agreement_status),
+                       COALESCE(s.service_cycle, equipment.service_cycle),
+                       COALESCE(s.next_service, equipment.next_service),
+                       now()
+                FROM equipment_import_staging s
+                WHERE s.serial_number = EXCLUDED.serial_number)
+            WHERE equipment.deleted_at IS NULL
+            """;
+
+    private static final String ON_CONFLICT_SKIP = "DO NOTHING";
+
+    private final DataSource dataSource;
+
+    public EquipmentCopyWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Session open(Organization organization, boolean upsertMode) throws IOException {
+        try {
+            return new Session(dataSource.getConnection(), organization, upsertMode);
+        } catch (SQLException e) {
+            throw new IOException("Failed to start bulk load", e);
+        }
+    }
+
+    public static final class Session implements AutoCloseable {
+
+        private final Connection connection;
+        private final Organization organization;
+        private final boolean upsertMode;
+        private final PGCopyOutputStream copy;
+        private final Writer out;
+        private boolean merged;
+
+        private Session(Connection connection, Organization organization, boolean upsertMode) throws SQLException {
+            this.connection = connection;
+            this.organization = organization;
+            this.upsertMode = upsertMode;
+            try {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_TABLE);
+                }
+                this.copy = new PGCopyOutputStream(
+                        connection.unwrap(PGConnection.class), COPY_STAGING, 1 << 16);
+                this.out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), 1 << 16);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        public void add(EquipmentImportRow row) throws IOException {
+            out.write(Integer.toString(row.rowNumber()));
+            writeField(row.serialNumber());
+            writeField(row.custAssetId());
+            writeField(row.agreementStatus() != null ? row.agreementStatus().name() : null);
+            writeField(row.serviceCycle() != null ? row.serviceCycle().name() : null);
+            writeField(row.nextService() != null ? row.nextService().toString() : null);
+            out.write('\n');
+        }
+
+        /**
+         * Finishes the copy, merges the staging table and commits. Staged rows the merge did not
+         * write (serial numbers taken by other or deleted equipment) are added to {@code errors}.
+         * Returns the number of rows written.
+         */
+        public int merge(List<ImportResult.ImportError> errors) throws IOException {
+            out.close();
+            int rejected = 0;
+            int staged;
+            try {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT count(*) FROM equipment_import_staging")) {
+                    rs.next();
+                    staged = rs.getInt(1);
+                }
+                String sql = MERGE_INSERT.formatted(upsertMode ? ON_CONFLICT_UPDATE : ON_CONFLICT_SKIP);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setObject(1, organization.getId());
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            errors.add(new ImportResult.ImportError(rs.getInt(1), null,
+                                    "Serial number conflicts with existing equipment: " + rs.getString(2)));
+                            rejected++;
+                        }
+                    }
+                }
+                connection.commit();
+                merged = true;
+            } catch (SQLException e) {
+                throw new IOException("Bulk load failed: " + e.getMessage(), e);
+            }
+            return staged - rejected;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!merged) {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                    connection.rollback();
+                }
+                connection.setAutoCommit(true);
+                connection.close();
+            } catch (SQLException e) {
+                throw new IOException("Failed to close bulk load connection", e);
+            }
+        }
+
+        // CSV COPY format: an unquoted empty field is NULL, quoted fields escape quotes by doubling them
+        private void writeField(String value) throws IOException {
+            out.write(',');
+            if (value != null) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.equipment.EquipmentKeyset;
+import com.parctrack.domain.equipment.EquipmentSortKey;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Turns an {@link EquipmentKeyset} into the opaque continuation token handed to clients and
+ * back. The token carries the sort and the date stoplight statuses are evaluated on, so a client
+ * only has to send it back to get the next page, and a listing that crosses midnight stays stable.
+ */
+final class EquipmentCursorCodec {
+
+    private static final String VERSION = "2";
+    private static final int FIELDS = 6;
+    private static final String SEPARATOR = "|";
+
+    private EquipmentCursorCodec() {
+    }
+
+    static String encode(EquipmentKeyset keyset) {
+        EquipmentSortKey sortKey = keyset.sortKey();
+        // The value goes last and is split off with a limit, so it may itself contain the separator
+        String token = String.join(SEPARATOR,
+                VERSION,
+                sortKey.getProperty(),
+                keyset.descending() ? "desc" : "asc",
+                keyset.id().toString(),
+                keyset.today().toString(),
+                keyset.value() == null ? "" : "=" + sortKey.format(keyset.value()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static EquipmentKeyset decode(String cursor) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!token.startsWith(VERSION + SEPARATOR)) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            String[] parts = token.split("\\" + SEPARATOR, FIELDS);
+            if (parts.length != FIELDS) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+
+            EquipmentSortKey sortKey = EquipmentSortKey.fromProperty(parts[1])
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown sort column"));
+            if (!"asc".equals(parts[2]) && !"desc".equals(parts[2])) {
+                throw new IllegalArgumentException("Unknown sort direction");
+            }
+            boolean descending = "desc".equals(parts[2]);
+            UUID id = UUID.fromString(parts[3]);
+            LocalDate today = LocalDate.parse(parts[4]);
+            String value = parts[5];
+            return new EquipmentKeyset(sortKey, descending,
+                    value.isEmpty() ? null : sortKey.parse(value.substring(1)), id, today);
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.Equipment;
+import com.parctrack.domain.equipment.ServiceCycle;
+import com.parctrack.domain.organization.Organization;
+
+import java.time.LocalDate;
+
+/**
+ * A validated import row. Optional columns are {@code null} when the file did not provide
+ * them, in which case the existing (or default) value of the equipment is kept.
+ */
+public record EquipmentImportRow(
+        int rowNumber,
+        String serialNumber,
+        String custAssetId,
+        AgreementStatus agreementStatus,
+        ServiceCycle serviceCycle,
+        LocalDate nextService
+) {
+    public Equipment toNewEquipment(Organization organization) {
+        Equipment equipment = new Equipment(
+                organization,
+                serialNumber,
+                AgreementStatus.PENDING,
+                ServiceCycle.QUARTERLY
+        );
+        applyTo(equipment);
+        return equipment;
+    }
+
+    public void applyTo(Equipment equipment) {
+        if (custAssetId != null) {
+            equipment.setCustAssetId(custAssetId);
+        }
+        if (agreementStatus != null) {
+            equipment.setAgreementStatus(agreementStatus);
+        }
+        if (serviceCycle != null) {
+            equipment.setServiceCycle(serviceCycle);
+        }
+        if (nextService != null) {
+            equipment.setNextService(nextService);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.domain.equipment.Equipment;
+import com.parctrack.domain.equipment.EquipmentRepository;
+import com.parctrack.domain.organization.Organization;
+import com.parctrack.infrastructure.config.ImportProperties;
+import jakarta.persistence.EntityManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes validated import rows. Each chunk is committed in its own transaction and the
+ * persistence context is flushed and cleared every {@code batchSize} rows, so Hibernate
+ * sends JDBC batches and neither the connection nor the session grows with the file.
+ */
+@Service
+public class EquipmentImportWriter {
+
+    private final EquipmentRepository equipmentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EquipmentImportWriter(
+            EquipmentRepository equipmentRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ImportProperties importProperties) {
+        this.equipmentRepository = equipmentRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = Math.max(1, importProperties.getBatchSize());
+    }
+
+    /**
+     * Commits the chunk and returns the number of rows written. If the chunk fails as a whole
+     * (e.g. a constraint violation in one batch), it is retried row by row so only the
+     * offending rows are reported in {@code errors}.
+     */
+    public int writeChunk(List<EquipmentImportRow> rows, Organization organization, boolean upsertMode,
+                          List<ImportResult.ImportError> errors) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(rows, organization, upsertMode));
+            return rows.size();
+        } catch (RuntimeException chunkError) {
+            int written = 0;
+            for (EquipmentImportRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(row), organization, upsertMode));
+                    written++;
+                } catch (RuntimeException e) {
+                    errors.add(new ImportResult.ImportError(row.rowNumber(), null,
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                }
+            }
+            return written;
+        }
+    }
+
+    private void write(List<EquipmentImportRow> rows, Organization organization, boolean upsertMode) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<EquipmentImportRow> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+
+            Map<String, Equipment> existing = new HashMap<>();
+            if (upsertMode) {
+                List<String> serialNumbers = batch.stream().map(EquipmentImportRow::serialNumber).toList();
+                for (Equipment equipment : equipmentRepository.findBySerialNumberInAndOrganizationId(serialNumbers, organization.getId())) {
+                    existing.put(equipment.getSerialNumber(), equipment);
+                }
+            }
+
+            for (EquipmentImportRow row : batch) {
+                Equipment equipment = existing.get(row.serialNumber());
+                if (equipment != null) {
+                    row.applyTo(equipment);
+                } else {
+                    entityManager.persist(row.toNewEquipment(organization));
+                }
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.application.dto.equipment.EquipmentDto;
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.StoplightService;
+import com.parctrack.infrastructure.config.LookupCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of scanner lookups, from scanned code to {@link EquipmentDto}, partitioned by
+ * tenant. Each tenant holds at most {@code maxEntriesPerTenant} codes (least recently used goes
+ * first) for at most {@code ttlSeconds}. Entries are dropped after commit when the equipment
+ * they point at is written, or all of a tenant's when a write is not limited to known equipment.
+ * The stoplight status depends on today's date, so it is recomputed on every hit.
+ *
+ * <p>Codes that resolved to nothing are remembered too, for {@code missTtlSeconds}, so bursts of
+ * unknown labels do not each cost a query. Any write to the tenant forgets them, since a create,
+ * import or asset ID change can make an unknown code known.
+ */
+@Service
+public class EquipmentLookupCache {
+
+    private final boolean enabled;
+    private final int maxEntriesPerTenant;
+    private final long ttlNanos;
+    private final int maxMissesPerTenant;
+    private final long missTtlNanos;
+    private final StoplightService stoplightService;
+    private final Map<UUID, TenantEntries> tenants = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter knownMisses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    public EquipmentLookupCache(LookupCacheProperties properties, StoplightService stoplightService,
+                                MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxEntriesPerTenant = Math.max(1, properties.getMaxEntriesPerTenant());
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+        this.maxMissesPerTenant = Math.max(1, properties.getMaxMissesPerTenant());
+        this.missTtlNanos = TimeUnit.SECONDS.toNanos(properties.getMissTtlSeconds());
+        this.stoplightService = stoplightService;
+
+        this.hits = Counter.builder("equipment.lookup.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("equipment.lookup.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.knownMisses = Counter.builder("equipment.lookup.cache.requests").tag("result", "known-miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("equipment.lookup.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("equipment.lookup.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.invalidations = Counter.builder("equipment.lookup.cache.evictions").tag("cause", "invalidated").register(meterRegistry);
+        Gauge.builder("equipment.lookup.cache.size", tenants, EquipmentLookupCache::totalSize).register(meterRegistry);
+    }
+
+    public Optional<EquipmentDto> get(UUID organizationId, String code) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        TenantEntries entries = tenants.get(organizationId);
+        EquipmentDto cached = entries != null ? entries.get(code) : null;
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.withStoplightStatus(
+                stoplightService.calculateStatus(effectiveAgreementStatus(cached), cached.nextService())));
+    }
+
+    // True if the code was looked up recently and did not match any equipment
+    public boolean isKnownMiss(UUID organizationId, String code) {
+        if (!enabled) {
+            return false;
+        }
+        TenantEntries entries = tenants.get(organizationId);
+        if (entries != null && entries.isKnownMiss(code)) {
+            knownMisses.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Generation of the tenant's entries, to be read before the database lookup and handed to
+     * {@link #put}. If the tenant was invalidated in between, the result is not cached, so a read
+     * that raced a write cannot put the old state back.
+     */
+    public long generation(UUID organizationId) {
+        return enabled ? tenants.computeIfAbsent(organizationId, id -> new TenantEntries()).generation() : 0;
+    }
+
+    public void put(UUID organizationId, String code, EquipmentDto equipment, long generation) {
+        if (enabled) {
+            tenants.computeIfAbsent(organizationId, id -> new TenantEntries()).put(code, equipment, generation);
+        }
+    }
+
+    public void putMiss(UUID organizationId, String code, long generation) {
+        if (enabled) {
+            tenants.computeIfAbsent(organizationId, id -> new TenantEntries()).putMiss(code, generation);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        TenantEntries entries = tenants.get(event.organizationId());
+        if (entries != null) {
+            entries.invalidate(event);
+        }
+    }
+
+    // Customer agreement status wins over the equipment's own, as in StoplightService
+    private static AgreementStatus effectiveAgreementStatus(EquipmentDto equipment) {
+        if (equipment.site() != null && equipment.site().customer() != null) {
+            return equipment.site().customer().agreementStatus();
+        }
+        return equipment.agreementStatus();
+    }
+
+    private static double totalSize(Map<UUID, TenantEntries> tenants) {
+        return tenants.values().stream().mapToInt(TenantEntries::size).sum();
+    }
+
+    private record Entry(EquipmentDto equipment, long expiresAt) {
+    }
+
+    private final class TenantEntries {
+
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntriesPerTenant) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        // Unknown code -> expiry; insertion order is enough since entries are never refreshed
+        private final LinkedHashMap<String, Long> unknownCodes = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > maxMissesPerTenant) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        private long generation;
+
+        synchronized EquipmentDto get(String code) {
+            Entry entry = entries.get(code);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() > 0) {
+                entries.remove(code);
+                expiredEvictions.increment();
+                return null;
+            }
+            return entry.equipment();
+        }
+
+        synchronized void put(String code, EquipmentDto equipment, long expectedGeneration) {
+            if (generation == expectedGeneration) {
+                entries.put(code, new Entry(equipment, System.nanoTime() + ttlNanos));
+            }
+        }
+
+        synchronized boolean isKnownMiss(String code) {
+            Long expiresAt = unknownCodes.get(code);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (System.nanoTime() - expiresAt > 0) {
+                unknownCodes.remove(code);
+                expiredEvictions.increment();
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void putMiss(String code, long expectedGeneration) {
+            if (generation == expectedGeneration) {
+                unknownCodes.put(code, System.nanoTime() + missTtlNanos);
+            }
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void invalidate(TenantDataChangedEvent event) {
+            generation++;
+            invalidations.increment(unknownCodes.size());
+            unknownCodes.clear();
+            if (event.equipmentIds() == null) {
+                invalidations.increment(entries.size());
+                entries.clear();
+                return;
+            }
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (event.equipmentIds().contains(it.next().equipment().id())) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+
+        synchronized int size() {
+            return entries.size() + unknownCodes.size();
+        }
+    }
+}
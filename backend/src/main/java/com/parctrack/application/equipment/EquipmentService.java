@@ -2,6 +2,7 @@ package com.parctrack.application.equipment;
 
 import com.parctrack.application.audit.AuditService;
 import com.parctrack.application.dto.equipment.*;
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.equipment.*;
 import com.parctrack.domain.organization.Organization;
 import com.parctrack.domain.organization.OrganizationRepository;
@@ -12,15 +13,19 @@ import com.parctrack.domain.user.UserRepository;
 import com.parctrack.infrastructure.security.TenantContext;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -29,6 +34,9 @@ import java.util.stream.Collectors;
 @Service
 public class EquipmentService {
 
+    // Same cap as the offset list, which clamps to it instead of rejecting
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final EquipmentRepository equipmentRepository;
     private final OrganizationRepository organizationRepository;
     private final SiteRepository siteRepository;
@@ -37,6 +45,9 @@ public class EquipmentService {
     private final UserRepository userRepository;
     private final StoplightService stoplightService;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EquipmentLookupCache lookupCache;
+    private final TransactionTemplate readOnlyTransaction;
 
     public EquipmentService(
             EquipmentRepository equipmentRepository,
@@ -46,7 +57,10 @@ public class EquipmentService {
             ServiceRecordRepository serviceRecordRepository,
             UserRepository userRepository,
             StoplightService stoplightService,
-            AuditService auditService) {
+            AuditService auditService,
+            ApplicationEventPublisher eventPublisher,
+            EquipmentLookupCache lookupCache,
+            PlatformTransactionManager transactionManager) {
         this.equipmentRepository = equipmentRepository;
         this.organizationRepository = organizationRepository;
         this.siteRepository = siteRepository;
@@ -55,15 +69,36 @@ public class EquipmentService {
         this.userRepository = userRepository;
         this.stoplightService = stoplightService;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.lookupCache = lookupCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
-    public EquipmentDto lookup(String query) {
+    /**
+     * Resolves a scanned code. Unknown codes are an expected outcome of scanning (foreign labels,
+     * misreads), so they come back as empty rather than as an exception. Not @Transactional: a
+     * cache hit must not take a connection from the pool.
+     */
+    public Optional<EquipmentDto> lookup(String query) {
         UUID orgId = TenantContext.getCurrentTenant();
-        Equipment equipment = equipmentRepository.findBySerialNumberOrCustAssetIdAndOrganizationId(query, orgId)
-                .or(() -> equipmentRepository.findByQrCodeValueAndOrganizationId(query, orgId))
-                .orElseThrow(() -> new ResourceNotFoundException("Equipment not found: " + query));
-        return toDto(equipment);
+        if (lookupCache.isKnownMiss(orgId, query)) {
+            return Optional.empty();
+        }
+        Optional<EquipmentDto> cached = lookupCache.get(orgId, query);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        long generation = lookupCache.generation(orgId);
+        EquipmentDto equipment = readOnlyTransaction.execute(status ->
+                equipmentRepository.findByIdentifierAndOrganizationId(query, orgId).map(this::toDto).orElse(null));
+        if (equipment == null) {
+            lookupCache.putMiss(orgId, query, generation);
+            return Optional.empty();
+        }
+        lookupCache.put(orgId, query, equipment, generation);
+        return Optional.of(equipment);
     }
 
     @Transactional(readOnly = true)
@@ -77,27 +112,59 @@ public class EquipmentService {
     @Transactional(readOnly = true)
     public Page<EquipmentDto> list(EquipmentFilterRequest filter) {
         UUID orgId = TenantContext.getCurrentTenant();
-        Sort sort = Sort.by(
-                filter.sortDirection().equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC,
-                filter.sortBy()
-        );
-        Pageable pageable = PageRequest.of(filter.page(), filter.size(), sort);
+        Pageable pageable = PageRequest.of(filter.page(), filter.size());
+        LocalDate today = LocalDate.now();
 
-        Page<Equipment> page = equipmentRepository.findByOrganizationIdWithFilters(
+        Page<Equipment> page = equipmentRepository.findWithFilters(
                 orgId,
-                filter.agreementStatus(),
-                filter.serviceCycle(),
-                filter.nextServiceFrom(),
-                filter.nextServiceTo(),
-                filter.searchQuery(),
-                filter.customerId(),
-                filter.siteId(),
-                filter.equipmentTypeId(),
-                filter.lifecycleStatus(),
+                toCriteria(filter, today),
+                toSortKey(filter.sortBy()),
+                filter.sortDirection().equalsIgnoreCase("desc"),
                 pageable
         );
 
-        return page.map(this::toDto);
+        return page.map(equipment -> toDto(equipment, today));
+    }
+
+    /**
+     * Cursor-paged variant of {@link #list}. Pages seek past the last row instead of using an
+     * offset, and the total is only counted when asked for. When a cursor is given, its sort
+     * wins over the one in the filter, and stoplight statuses keep the date of the first page.
+     * The page size is taken as requested, not as clamped by the filter.
+     */
+    @Transactional(readOnly = true)
+    public EquipmentCursorPage listByCursor(EquipmentFilterRequest filter, String cursor, int size, boolean includeTotal) {
+        UUID orgId = TenantContext.getCurrentTenant();
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        EquipmentKeyset after = cursor != null && !cursor.isBlank() ? EquipmentCursorCodec.decode(cursor) : null;
+        EquipmentSortKey sortKey = after != null ? after.sortKey() : toSortKey(filter.sortBy());
+        boolean descending = after != null ? after.descending() : filter.sortDirection().equalsIgnoreCase("desc");
+        LocalDate today = after != null ? after.today() : LocalDate.now();
+        EquipmentSearchCriteria criteria = toCriteria(filter, today);
+
+        // One extra row tells us whether there is a next page without counting
+        List<Equipment> rows = equipmentRepository.findPageAfter(
+                orgId, criteria, sortKey, descending, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Equipment last = rows.get(rows.size() - 1);
+            Object lastValue = sortKey == EquipmentSortKey.STOPLIGHT_STATUS
+                    ? stoplightService.calculateStatus(last, today)
+                    : sortKey.valueOf(last);
+            nextCursor = EquipmentCursorCodec.encode(
+                    new EquipmentKeyset(sortKey, descending, lastValue, last.getId(), today));
+        }
+
+        Long total = includeTotal ? equipmentRepository.countWithFilters(orgId, criteria) : null;
+        List<EquipmentDto> content = rows.stream().map(equipment -> toDto(equipment, today)).toList();
+        return new EquipmentCursorPage(content, size, hasNext, nextCursor, total);
     }
 
     @Transactional(readOnly = true)
@@ -145,6 +212,9 @@ public class EquipmentService {
 
         equipment = equipmentRepository.save(equipment);
         auditService.logAction("EQUIPMENT_CREATED", "Equipment", equipment.getId());
+        // Tenant-wide: a new code can take precedence over an existing one in scanner lookups
+        eventPublisher.publishEvent(new TenantDataChangedEvent(
+                orgId, null, new StoplightDelta().add(stoplightService.bucketOf(equipment))));
 
         return toDto(equipment);
     }
@@ -154,18 +224,24 @@ public class EquipmentService {
         UUID orgId = TenantContext.getCurrentTenant();
         Equipment equipment = equipmentRepository.findByIdAndOrganizationId(id, orgId)
                 .orElseThrow(() -> new ResourceNotFoundException("Equipment not found"));
+        Set<UUID> touchedIds = new HashSet<>(Set.of(id));
+        StoplightDelta delta = new StoplightDelta().subtract(stoplightService.bucketOf(equipment));
+        boolean custAssetIdChanged = request.custAssetId() != null
+                && !request.custAssetId().equals(equipment.getCustAssetId());
 
         if (request.custAssetId() != null) {
             // Handle asset ID collision
-            if (!request.custAssetId().equals(equipment.getCustAssetId())) {
+            if (custAssetIdChanged) {
                 Optional<Equipment> existing = equipmentRepository.findByCustAssetIdAndOrganizationIdAndDeletedAtIsNull(
                         request.custAssetId(), orgId);
                 if (existing.isPresent() && !existing.get().getId().equals(id)) {
                     // Soft delete the old record and link via predecessor_id
                     Equipment oldEquipment = existing.get();
+                    delta.subtract(stoplightService.bucketOf(oldEquipment));
                     oldEquipment.softDelete();
                     equipmentRepository.save(oldEquipment);
                     equipment.setPredecessorId(oldEquipment.getId());
+                    touchedIds.add(oldEquipment.getId());
                 }
             }
             equipment.setCustAssetId(request.custAssetId());
@@ -183,6 +259,12 @@ public class EquipmentService {
 
         equipment = equipmentRepository.save(equipment);
         auditService.logAction("EQUIPMENT_UPDATED", "Equipment", equipment.getId());
+        delta.add(stoplightService.bucketOf(equipment));
+        // Tenant-wide when a code changes: lookups cached under the freed or the new asset ID may
+        // belong to other equipment
+        eventPublisher.publishEvent(custAssetIdChanged
+                ? new TenantDataChangedEvent(orgId, null, delta)
+                : TenantDataChangedEvent.forEquipment(orgId, touchedIds, delta));
 
         return toDto(equipment);
     }
@@ -212,11 +294,14 @@ public class EquipmentService {
         serviceRecord = serviceRecordRepository.save(serviceRecord);
 
         // Update equipment
+        StoplightDelta delta = new StoplightDelta().subtract(stoplightService.bucketOf(equipment));
         equipment.markServiced();
         equipmentRepository.save(equipment);
+        delta.add(stoplightService.bucketOf(equipment));
 
         auditService.logAction("EQUIPMENT_SERVICED", "Equipment", equipment.getId(),
                 reasonCode != null ? "Reason: " + reasonCode : null);
+        eventPublisher.publishEvent(TenantDataChangedEvent.forEquipment(orgId, Set.of(equipment.getId()), delta));
 
         return ServiceRecordDto.from(serviceRecord);
     }
@@ -263,15 +348,19 @@ public class EquipmentService {
         Equipment equipment = equipmentRepository.findByIdAndOrganizationId(id, orgId)
                 .orElseThrow(() -> new ResourceNotFoundException("Equipment not found"));
 
+        StoplightDelta delta = new StoplightDelta().subtract(stoplightService.bucketOf(equipment));
         equipment.softDelete();
         equipmentRepository.save(equipment);
         auditService.logAction("EQUIPMENT_DELETED", "Equipment", equipment.getId());
+        eventPublisher.publishEvent(TenantDataChangedEvent.forEquipment(orgId, Set.of(equipment.getId()), delta));
     }
 
     @Transactional
     public BulkOperationResult bulkDelete(BulkDeleteRequest request) {
         UUID orgId = TenantContext.getCurrentTenant();
         List<Equipment> equipmentList = equipmentRepository.findByIdInAndOrganizationId(request.ids(), orgId);
+        StoplightDelta delta = new StoplightDelta();
+        equipmentList.forEach(equipment -> delta.subtract(stoplightService.bucketOf(equipment)));
 
         int successCount = 0;
         for (Equipment equipment : equipmentList) {
@@ -281,6 +370,8 @@ public class EquipmentService {
         }
 
         auditService.logAction("EQUIPMENT_BULK_DELETE", "Equipment", null, "Deleted " + successCount + " items");
+        equipmentList.forEach(equipment -> delta.add(stoplightService.bucketOf(equipment)));
+        eventPublisher.publishEvent(TenantDataChangedEvent.forEquipment(orgId, idsOf(equipmentList), delta));
 
         return new BulkOperationResult(
                 successCount,
@@ -293,6 +384,8 @@ public class EquipmentService {
     public BulkOperationResult bulkUpdateStatus(BulkUpdateStatusRequest request) {
         UUID orgId = TenantContext.getCurrentTenant();
         List<Equipment> equipmentList = equipmentRepository.findByIdInAndOrganizationId(request.ids(), orgId);
+        StoplightDelta delta = new StoplightDelta();
+        equipmentList.forEach(equipment -> delta.subtract(stoplightService.bucketOf(equipment)));
 
         int successCount = 0;
         for (Equipment equipment : equipmentList) {
@@ -303,6 +396,8 @@ public class EquipmentService {
 
         auditService.logAction("EQUIPMENT_BULK_UPDATE_STATUS", "Equipment", null,
                 "Updated " + successCount + " items to " + request.agreementStatus());
+        equipmentList.forEach(equipment -> delta.add(stoplightService.bucketOf(equipment)));
+        eventPublisher.publishEvent(TenantDataChangedEvent.forEquipment(orgId, idsOf(equipmentList), delta));
 
         return new BulkOperationResult(
                 successCount,
@@ -315,6 +410,8 @@ public class EquipmentService {
     public BulkOperationResult bulkUpdateCycle(BulkUpdateCycleRequest request) {
         UUID orgId = TenantContext.getCurrentTenant();
         List<Equipment> equipmentList = equipmentRepository.findByIdInAndOrganizationId(request.ids(), orgId);
+        StoplightDelta delta = new StoplightDelta();
+        equipmentList.forEach(equipment -> delta.subtract(stoplightService.bucketOf(equipment)));
 
         int successCount = 0;
         for (Equipment equipment : equipmentList) {
@@ -325,6 +422,8 @@ public class EquipmentService {
 
         auditService.logAction("EQUIPMENT_BULK_UPDATE_CYCLE", "Equipment", null,
                 "Updated " + successCount + " items to " + request.serviceCycle());
+        equipmentList.forEach(equipment -> delta.add(stoplightService.bucketOf(equipment)));
+        eventPublisher.publishEvent(TenantDataChangedEvent.forEquipment(orgId, idsOf(equipmentList), delta));
 
         return new BulkOperationResult(
                 successCount,
@@ -333,8 +432,38 @@ public class EquipmentService {
         );
     }
 
+    private EquipmentSearchCriteria toCriteria(EquipmentFilterRequest filter, LocalDate today) {
+        return new EquipmentSearchCriteria(
+                filter.agreementStatus(),
+                filter.serviceCycle(),
+                filter.nextServiceFrom(),
+                filter.nextServiceTo(),
+                filter.searchQuery(),
+                filter.customerId(),
+                filter.siteId(),
+                filter.equipmentTypeId(),
+                filter.lifecycleStatus(),
+                filter.stoplightStatus(),
+                today
+        );
+    }
+
+    private EquipmentSortKey toSortKey(String sortBy) {
+        return EquipmentSortKey.fromProperty(sortBy)
+                .orElseThrow(() -> new BusinessException("Unsupported sort column: " + sortBy));
+    }
+
+    private static Set<UUID> idsOf(List<Equipment> equipmentList) {
+        return equipmentList.stream().map(Equipment::getId).collect(Collectors.toSet());
+    }
+
     private EquipmentDto toDto(Equipment equipment) {
-        StoplightStatus status = stoplightService.calculateStatus(equipment);
+        return toDto(equipment, LocalDate.now());
+    }
+
+    // Listings evaluate every row on the same day their query filtered and sorted on
+    private EquipmentDto toDto(Equipment equipment, LocalDate today) {
+        StoplightStatus status = stoplightService.calculateStatus(equipment, today);
         return EquipmentDto.from(equipment, status);
     }
 }
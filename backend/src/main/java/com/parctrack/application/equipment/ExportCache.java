@@ -0,0 +1,235 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.infrastructure.config.ExportProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache of generated exports. The key covers the tenant, format, filters, the
+ * tenant's data version and today's date (stoplight status depends on it), so an entry can
+ * never be served after the data it was built from changed. Versions are bumped on
+ * {@link TenantDataChangedEvent} and kept in memory; the directory is emptied on startup.
+ *
+ * <p>Versions are per instance: a write handled by another instance does not change this
+ * instance's keys, so with several instances an export can lag behind such writes until the
+ * day changes. Entries served recently are not evicted, since the file is opened by the
+ * container (sendfile) only after {@link #get} has returned.
+ */
+@Service
+public class ExportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportCache.class);
+    private static final String ENTRY_SUFFIX = ".export";
+    // Time between get() and the container opening the file; eviction leaves such entries alone
+    private static final Duration SERVE_WINDOW = Duration.ofMinutes(1);
+
+    @FunctionalInterface
+    public interface ExportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Duration maxAge;
+    private final Map<UUID, AtomicLong> dataVersions = new ConcurrentHashMap<>();
+
+    public ExportCache(ExportProperties exportProperties) {
+        this.enabled = exportProperties.isCacheEnabled();
+        this.directory = Paths.get(exportProperties.getCacheDirectory());
+        this.maxSizeBytes = exportProperties.getCacheMaxSizeMb() * 1024 * 1024;
+        this.maxAge = Duration.ofMinutes(exportProperties.getCacheMaxAgeMinutes());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            for (Path file : listFiles()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare export cache directory " + directory, e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        dataVersions.computeIfAbsent(event.organizationId(), id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public String key(ExportFilter filter, ExportFormat format) {
+        AtomicLong version = dataVersions.get(filter.organizationId());
+        String source = String.join("\u0000",
+                String.valueOf(filter.organizationId()),
+                format.name(),
+                String.valueOf(filter.agreementStatus()),
+                String.valueOf(filter.serviceCycle()),
+                String.valueOf(filter.searchPattern()),
+                String.valueOf(version != null ? version.get() : 0),
+                LocalDate.now().toString());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<Path> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        try {
+            // The modification time doubles as last access time for size-based eviction
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+            return Optional.of(entry);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the export to {@code out} and, at the same time, to a cache entry that is only
+     * published once the export has completed.
+     */
+    public void write(String key, OutputStream out, ExportWriter writer) throws IOException {
+        if (!enabled) {
+            writer.write(out);
+            return;
+        }
+
+        Path partial = Files.createTempFile(directory, key, ".part");
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+                writer.write(new TeeOutputStream(out, file));
+            }
+            Files.move(partial, directory.resolve(key + ENTRY_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes entries older than the maximum age, then the least recently used entries until
+     * the cache fits its size limit. Returns the number of deleted files.
+     */
+    public int evict() throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        Instant expiry = now.minus(maxAge);
+        Instant servedSince = now.minus(SERVE_WINDOW);
+        List<CachedFile> entries = new ArrayList<>();
+        int deleted = 0;
+        for (Path file : listFiles()) {
+            try {
+                Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+                if (lastModified.isAfter(servedSince)) {
+                    continue;
+                }
+                if (lastModified.isBefore(expiry)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                } else if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    entries.add(new CachedFile(file, lastModified, Files.size(file)));
+                }
+            } catch (IOException e) {
+                logger.warn("Could not inspect export cache file {}", file, e);
+            }
+        }
+
+        long totalSize = entries.stream().mapToLong(CachedFile::size).sum();
+        entries.sort(Comparator.comparing(CachedFile::lastModified));
+        for (CachedFile entry : entries) {
+            if (totalSize <= maxSizeBytes) {
+                break;
+            }
+            Files.deleteIfExists(entry.path());
+            totalSize -= entry.size();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private record CachedFile(Path path, Instant lastModified, long size) {}
+
+    // Copies everything written to the response into the cache file; closing is left to the owners
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream primary;
+        private final OutputStream copy;
+
+        private TeeOutputStream(OutputStream primary, OutputStream copy) {
+            this.primary = primary;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            primary.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            primary.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            primary.flush();
+            copy.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
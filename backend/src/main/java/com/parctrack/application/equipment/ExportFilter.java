@@ -0,0 +1,27 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentSearchCriteria;
+import com.parctrack.domain.equipment.ServiceCycle;
+import com.parctrack.infrastructure.security.TenantContext;
+
+import java.util.UUID;
+
+/**
+ * Filters of an export, bound to the tenant at request time. Exports are written after the
+ * request thread has returned, so the tenant cannot be read from {@link TenantContext} there.
+ */
+public record ExportFilter(
+        UUID organizationId,
+        AgreementStatus agreementStatus,
+        ServiceCycle serviceCycle,
+        String searchQuery
+) {
+    public static ExportFilter forCurrentTenant(AgreementStatus agreementStatus, ServiceCycle serviceCycle, String searchQuery) {
+        return new ExportFilter(TenantContext.getCurrentTenant(), agreementStatus, serviceCycle, searchQuery);
+    }
+
+    public String searchPattern() {
+        return EquipmentSearchCriteria.searchPattern(searchQuery);
+    }
+}
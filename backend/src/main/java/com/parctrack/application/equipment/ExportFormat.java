@@ -0,0 +1,34 @@
+package com.parctrack.application.equipment;
+
+public enum ExportFormat {
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "equipment.xlsx"),
+    PDF("application/pdf", "equipment.pdf"),
+    CSV("text/csv", "equipment.csv"),
+    CSV_GZIP("application/gzip", "equipment.csv.gz");
+
+    private final String contentType;
+    private final String filename;
+
+    ExportFormat(String contentType, String filename) {
+        this.contentType = contentType;
+        this.filename = filename;
+    }
+
+    public static ExportFormat of(String format, boolean gzip) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return gzip ? CSV_GZIP : CSV;
+        }
+        if ("pdf".equalsIgnoreCase(format)) {
+            return PDF;
+        }
+        return XLSX;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+}
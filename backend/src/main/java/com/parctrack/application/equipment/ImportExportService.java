@@ -1,319 +1,494 @@
 package com.parctrack.application.equipment;
 
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.parctrack.application.audit.AuditService;
 import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.equipment.*;
 import com.parctrack.domain.organization.Organization;
 import com.parctrack.domain.organization.OrganizationRepository;
+import com.parctrack.infrastructure.config.ExportProperties;
+import com.parctrack.infrastructure.config.ImportProperties;
 import com.parctrack.infrastructure.security.TenantContext;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.ResourceNotFoundException;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.data.domain.Page;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class ImportExportService {
 
+    // Fixed column widths in characters; autoSizeColumn would have to measure every row
+    private static final int[] EXCEL_COLUMN_WIDTHS = {24, 20, 18, 14, 24, 14, 10, 30, 30};
+
     private final EquipmentRepository equipmentRepository;
     private final OrganizationRepository organizationRepository;
     private final StoplightService stoplightService;
     private final AuditService auditService;
+    private final EquipmentImportWriter importWriter;
+    private final EquipmentCopyWriter copyWriter;
+    private final ImportPipeline importPipeline;
+    private final ImportProperties importProperties;
+    private final ExportProperties exportProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
     public ImportExportService(
             EquipmentRepository equipmentRepository,
             OrganizationRepository organizationRepository,
             StoplightService stoplightService,
-            AuditService auditService) {
+            AuditService auditService,
+            EquipmentImportWriter importWriter,
+            EquipmentCopyWriter copyWriter,
+            ImportPipeline importPipeline,
+            ImportProperties importProperties,
+            ExportProperties exportProperties,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper) {
         this.equipmentRepository = equipmentRepository;
         this.organizationRepository = organizationRepository;
         this.stoplightService = stoplightService;
         this.auditService = auditService;
+        this.importWriter = importWriter;
+        this.copyWriter = copyWriter;
+        this.importPipeline = importPipeline;
+        this.importProperties = importProperties;
+        this.exportProperties = exportProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    // Not transactional: the import writers manage their own transactions
+    public ImportResult importFromFile(MultipartFile file, ImportOptions options) throws IOException {
+        Path tempFile = Files.createTempFile("parctrack-import-", null);
+        try {
+            file.transferTo(tempFile);
+            return importFromPath(tempFile, file.getOriginalFilename(), options, new ImportProgress());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
 
-    @Transactional
-    public ImportResult importFromFile(MultipartFile file, boolean upsertMode) throws IOException {
+    public ImportResult importFromPath(Path file, String filename, ImportOptions options, ImportProgress progress) throws IOException {
+        return importFromPath(file, filename, TenantContext.getCurrentTenant(), options, progress, null);
+    }
+
+    /**
+     * Validates an upload without writing anything and streams the report as JSON: the row-level
+     * errors are written in row order as they are found, followed by the summary counts. The
+     * tenant is captured here because the body is written on an async thread.
+     */
+    public StreamingResponseBody dryRun(MultipartFile file, boolean upsertMode) throws IOException {
         UUID orgId = TenantContext.getCurrentTenant();
+        String filename = file.getOriginalFilename();
+        Path tempFile = Files.createTempFile("parctrack-import-", null);
+        try {
+            file.transferTo(tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        ImportOptions options = new ImportOptions(upsertMode, false, true);
+        return out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("errors");
+                ImportResult result = importFromPath(tempFile, filename, orgId, options, new ImportProgress(), error -> {
+                    try {
+                        json.writeObject(error);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeNumberField("totalRows", result.totalRows());
+                json.writeNumberField("successCount", result.successCount());
+                json.writeNumberField("errorCount", result.errorCount());
+                json.writeBooleanField("dryRun", true);
+                json.writeEndObject();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        };
+    }
+
+    private ImportResult importFromPath(Path file, String filename, UUID orgId, ImportOptions options, ImportProgress progress,
+                                        Consumer<ImportResult.ImportError> errorSink) throws IOException {
         Organization organization = organizationRepository.findById(orgId)
                 .orElseThrow(() -> new ResourceNotFoundException("Organization not found"));
+        RowImporter importer = new RowImporter(organization, options, progress, errorSink);
 
-        String filename = file.getOriginalFilename();
         if (filename != null && filename.endsWith(".csv")) {
-            return importFromCsv(file, organization, upsertMode);
+            return importFromCsv(file, importer, progress);
         } else {
-            return importFromExcel(file, organization, upsertMode);
+            return importFromExcel(file, importer, progress);
         }
     }
 
-    private ImportResult importFromCsv(MultipartFile file, Organization organization, boolean upsertMode) throws IOException {
-        List<ImportResult.ImportError> errors = new ArrayList<>();
-        int successCount = 0;
-        int totalRows = 0;
+    private ImportResult importFromCsv(Path file, RowImporter importer, ImportProgress progress) throws IOException {
 
-        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-            List<String[]> rows = reader.readAll();
-            if (rows.isEmpty()) {
-                return new ImportResult(0, 0, 0, errors);
+        // Read row by row so memory stays flat regardless of the upload size
+        return importer.run(handler -> {
+            InputStream in = progress.track(Files.newInputStream(file), Files.size(file));
+            try (CSVReader reader = new CSVReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                int rowNumber = 0;
+                String[] row;
+                while ((row = reader.readNext()) != null) {
+                    handler.row(++rowNumber, row);
+                }
+            } catch (CsvValidationException e) {
+                throw new IOException("Failed to parse CSV file", e);
             }
+        });
+    }
 
-            String[] headers = rows.get(0);
-            Map<String, Integer> headerMap = new HashMap<>();
-            for (int i = 0; i < headers.length; i++) {
-                headerMap.put(headers[i].toLowerCase().trim(), i);
+    private ImportResult importFromExcel(Path file, RowImporter importer, ImportProgress progress) throws IOException {
+        return importer.run(handler -> StreamingExcelReader.read(file, handler, progress));
+    }
+
+    /**
+     * Applies rows from either file format: the first row is the header, every following
+     * row is validated on its own so one bad row does not fail the import. Parsing runs on the
+     * {@link ImportPipeline} workers; this class consumes the results in file order, resolves
+     * serial numbers against an index loaded once per import, and hands valid rows to the
+     * {@link EquipmentImportWriter} in chunks that commit independently, or in bulk-load mode
+     * streams them to the {@link EquipmentCopyWriter}, which merges them all at the end. A dry
+     * run stops after validation and only counts the rows that would have been written.
+     */
+    private class RowImporter {
+
+        private final Organization organization;
+        private final ImportOptions options;
+        private final ImportProgress progress;
+        private final ImportSerialIndex serialIndex;
+        private final List<EquipmentImportRow> chunk = new ArrayList<>();
+        private final List<ImportResult.ImportError> errors = new ArrayList<>();
+        private final Consumer<ImportResult.ImportError> errorSink;
+        private int streamedErrorCount = 0;
+        private int successCount = 0;
+        private int totalRows = 0;
+
+        private EquipmentCopyWriter.Session bulkSession;
+
+        // Errors go to errorSink as they are found when one is given, otherwise into the result
+        RowImporter(Organization organization, ImportOptions options, ImportProgress progress,
+                    Consumer<ImportResult.ImportError> errorSink) {
+            this.organization = organization;
+            this.options = options;
+            this.progress = progress;
+            this.errorSink = errorSink;
+            this.serialIndex = new ImportSerialIndex(
+                    equipmentRepository.findSerialNumbersByOrganizationId(organization.getId()));
+        }
+
+        ImportResult run(ImportPipeline.Source source) throws IOException {
+            if (options.dryRun() || !options.bulkLoad()) {
+                return finish(importPipeline.run(source, this::createParser, this::accept));
             }
+            try (EquipmentCopyWriter.Session session = copyWriter.open(organization, options.upsertMode())) {
+                bulkSession = session;
+                return finish(importPipeline.run(source, this::createParser, this::accept));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
 
-            for (int i = 1; i < rows.size(); i++) {
-                totalRows++;
-                String[] row = rows.get(i);
-                try {
-                    Equipment equipment = parseRow(headerMap, row, organization, upsertMode);
-                    if (equipment != null) {
-                        equipmentRepository.save(equipment);
-                        successCount++;
-                    }
-                } catch (Exception e) {
-                    errors.add(new ImportResult.ImportError(i + 1, null, e.getMessage()));
+        private ImportPipeline.RowParser createParser(String[] header) {
+            Map<String, Integer> headerMap = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                if (header[i] != null) {
+                    headerMap.put(header[i].toLowerCase().trim(), i);
                 }
             }
-        } catch (CsvException e) {
-            throw new IOException("Failed to parse CSV file", e);
+            return (rowNumber, values) -> parseRow(headerMap, values, rowNumber);
         }
 
-        auditService.logAction("EQUIPMENT_IMPORT", "Equipment", null,
-                "Imported " + successCount + "/" + totalRows + " rows");
-
-        return new ImportResult(totalRows, successCount, errors.size(), errors);
-    }
-
-    private ImportResult importFromExcel(MultipartFile file, Organization organization, boolean upsertMode) throws IOException {
-        List<ImportResult.ImportError> errors = new ArrayList<>();
-        int successCount = 0;
-        int totalRows = 0;
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
+        private void accept(ImportPipeline.ParsedRow parsed) {
+            totalRows++;
+            try {
+                if (parsed.error() != null) {
+                    throw new IllegalArgumentException(parsed.error());
+                }
+                EquipmentImportRow row = parsed.row();
+                if (serialIndex.register(row.serialNumber()) && !options.upsertMode()) {
+                    throw new IllegalArgumentException("Equipment already exists: " + row.serialNumber());
+                }
+                if (options.dryRun()) {
+                    successCount++;
+                    progress.addSuccess(1);
+                } else {
+                    chunk.add(row);
+                }
+            } catch (Exception e) {
+                recordError(new ImportResult.ImportError(parsed.rowNumber(), null, e.getMessage()));
+            }
+            progress.rowProcessed();
 
-            if (!rowIterator.hasNext()) {
-                return new ImportResult(0, 0, 0, errors);
+            if (chunk.size() >= importProperties.getChunkSize()) {
+                writeChunk();
             }
+        }
 
-            Row headerRow = rowIterator.next();
-            Map<String, Integer> headerMap = new HashMap<>();
-            for (Cell cell : headerRow) {
-                headerMap.put(getCellStringValue(cell).toLowerCase().trim(), cell.getColumnIndex());
+        private void recordError(ImportResult.ImportError error) {
+            if (errorSink != null) {
+                errorSink.accept(error);
+                progress.setErrorCount(++streamedErrorCount);
+            } else {
+                errors.add(error);
+                progress.setErrorCount(errors.size());
             }
+        }
 
-            while (rowIterator.hasNext()) {
-                totalRows++;
-                Row row = rowIterator.next();
+        private void writeChunk() {
+            if (bulkSession != null) {
                 try {
-                    Equipment equipment = parseExcelRow(headerMap, row, organization, upsertMode);
-                    if (equipment != null) {
-                        equipmentRepository.save(equipment);
-                        successCount++;
+                    for (EquipmentImportRow row : chunk) {
+                        bulkSession.add(row);
                     }
-                } catch (Exception e) {
-                    errors.add(new ImportResult.ImportError(row.getRowNum() + 1, null, e.getMessage()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            } else {
+                int written = importWriter.writeChunk(chunk, organization, options.upsertMode(), errors);
+                if (written > 0) {
+                    eventPublisher.publishEvent(new TenantDataChangedEvent(organization.getId()));
+                }
+                successCount += written;
+                progress.addSuccess(written);
+                progress.setErrorCount(errors.size());
             }
+            chunk.clear();
         }
 
-        auditService.logAction("EQUIPMENT_IMPORT", "Equipment", null,
-                "Imported " + successCount + "/" + totalRows + " rows");
+        private ImportResult finish(boolean hasHeader) throws IOException {
+            if (!hasHeader) {
+                return new ImportResult(0, 0, 0, errors);
+            }
+            if (options.dryRun()) {
+                return new ImportResult(totalRows, successCount, errors.size() + streamedErrorCount, errors);
+            }
+            writeChunk();
+            if (bulkSession != null) {
+                successCount = bulkSession.merge(errors);
+                eventPublisher.publishEvent(new TenantDataChangedEvent(organization.getId()));
+                progress.addSuccess(successCount);
+                progress.setErrorCount(errors.size());
+            }
+            errors.sort(Comparator.comparingInt(ImportResult.ImportError::row));
 
-        return new ImportResult(totalRows, successCount, errors.size(), errors);
+            auditService.logAction("EQUIPMENT_IMPORT", "Equipment", null,
+                    "Imported " + successCount + "/" + totalRows + " rows");
+
+            return new ImportResult(totalRows, successCount, errors.size(), errors);
+        }
     }
 
-    private Equipment parseRow(Map<String, Integer> headerMap, String[] row, Organization organization, boolean upsertMode) {
+    private EquipmentImportRow parseRow(Map<String, Integer> headerMap, String[] row, int rowNumber) {
         String serialNumber = getColumnValue(headerMap, row, "serial_number", "serialnumber");
         if (serialNumber == null || serialNumber.isBlank()) {
             throw new IllegalArgumentException("Serial number is required");
         }
 
-        Optional<Equipment> existingOpt = equipmentRepository.findBySerialNumberAndOrganizationId(serialNumber, organization.getId());
-
-        if (existingOpt.isPresent() && !upsertMode) {
-            throw new IllegalArgumentException("Equipment already exists: " + serialNumber);
-        }
-
-        Equipment equipment = existingOpt.orElseGet(() -> new Equipment(
-                organization,
-                serialNumber,
-                AgreementStatus.PENDING,
-                ServiceCycle.QUARTERLY
-        ));
-
         String custAssetId = getColumnValue(headerMap, row, "cust_asset_id", "custassetid", "asset_id");
-        if (custAssetId != null) {
-            equipment.setCustAssetId(custAssetId);
-        }
 
+        AgreementStatus agreementStatus = null;
         String agreementStatusStr = getColumnValue(headerMap, row, "agreement_status", "agreementstatus", "status");
         if (agreementStatusStr != null) {
             try {
-                equipment.setAgreementStatus(AgreementStatus.valueOf(agreementStatusStr.toUpperCase()));
+                agreementStatus = AgreementStatus.valueOf(agreementStatusStr.toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid agreement status: " + agreementStatusStr);
             }
         }
 
+        ServiceCycle serviceCycle = null;
         String serviceCycleStr = getColumnValue(headerMap, row, "service_cycle", "servicecycle", "cycle");
         if (serviceCycleStr != null) {
             try {
-                equipment.setServiceCycle(ServiceCycle.valueOf(serviceCycleStr.toUpperCase()));
+                serviceCycle = ServiceCycle.valueOf(serviceCycleStr.toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid service cycle: " + serviceCycleStr);
             }
         }
 
+        LocalDate nextService = null;
         String nextServiceStr = getColumnValue(headerMap, row, "next_service", "nextservice");
         if (nextServiceStr != null && !nextServiceStr.isBlank()) {
             try {
-                equipment.setNextService(LocalDate.parse(nextServiceStr, DateTimeFormatter.ISO_DATE));
+                nextService = LocalDate.parse(nextServiceStr, DateTimeFormatter.ISO_DATE);
             } catch (DateTimeParseException e) {
                 throw new IllegalArgumentException("Invalid date format for next_service: " + nextServiceStr);
             }
         }
 
-        return equipment;
-    }
-
-    private Equipment parseExcelRow(Map<String, Integer> headerMap, Row row, Organization organization, boolean upsertMode) {
-        String serialNumberValue = getCellStringValue(row, headerMap.get("serial_number"));
-        if (serialNumberValue == null) {
-            serialNumberValue = getCellStringValue(row, headerMap.get("serialnumber"));
-        }
-        if (serialNumberValue == null || serialNumberValue.isBlank()) {
-            throw new IllegalArgumentException("Serial number is required");
-        }
-        final String serialNumber = serialNumberValue;
-
-        Optional<Equipment> existingOpt = equipmentRepository.findBySerialNumberAndOrganizationId(serialNumber, organization.getId());
-
-        if (existingOpt.isPresent() && !upsertMode) {
-            throw new IllegalArgumentException("Equipment already exists: " + serialNumber);
-        }
-
-        Equipment equipment = existingOpt.orElseGet(() -> new Equipment(
-                organization,
-                serialNumber,
-                AgreementStatus.PENDING,
-                ServiceCycle.QUARTERLY
-        ));
-
-        String custAssetId = getCellStringValue(row, headerMap.get("cust_asset_id"));
-        if (custAssetId == null) custAssetId = getCellStringValue(row, headerMap.get("custassetid"));
-        if (custAssetId != null && !custAssetId.isBlank()) {
-            equipment.setCustAssetId(custAssetId);
-        }
-
-        String agreementStatus = getCellStringValue(row, headerMap.get("agreement_status"));
-        if (agreementStatus == null) agreementStatus = getCellStringValue(row, headerMap.get("agreementstatus"));
-        if (agreementStatus != null && !agreementStatus.isBlank()) {
-            try {
-                equipment.setAgreementStatus(AgreementStatus.valueOf(agreementStatus.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid agreement status: " + agreementStatus);
-            }
-        }
-
-        String serviceCycle = getCellStringValue(row, headerMap.get("service_cycle"));
-        if (serviceCycle == null) serviceCycle = getCellStringValue(row, headerMap.get("servicecycle"));
-        if (serviceCycle != null && !serviceCycle.isBlank()) {
-            try {
-                equipment.setServiceCycle(ServiceCycle.valueOf(serviceCycle.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid service cycle: " + serviceCycle);
-            }
-        }
-
-        return equipment;
+        return new EquipmentImportRow(rowNumber, serialNumber, custAssetId, agreementStatus, serviceCycle, nextService);
     }
 
     private String getColumnValue(Map<String, Integer> headerMap, String[] row, String... columnNames) {
         for (String name : columnNames) {
             Integer idx = headerMap.get(name);
-            if (idx != null && idx < row.length) {
+            // Blank cells count as missing
+            if (idx != null && idx < row.length && row[idx] != null && !row[idx].isBlank()) {
                 return row[idx].trim();
             }
         }
         return null;
     }
 
-    private String getCellStringValue(Row row, Integer colIndex) {
-        if (colIndex == null) return null;
-        Cell cell = row.getCell(colIndex);
-        return getCellStringValue(cell);
-    }
-
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) return null;
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
+    public void export(ExportFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case PDF -> exportToPdf(filter, out);
+            case CSV -> exportToCsv(filter, out, false);
+            case CSV_GZIP -> exportToCsv(filter, out, true);
+            case XLSX -> exportToExcel(filter, out);
+        }
     }
 
-    public byte[] exportToExcel(AgreementStatus agreementStatus, ServiceCycle serviceCycle, String searchQuery) throws IOException {
-        UUID orgId = TenantContext.getCurrentTenant();
-        Page<Equipment> page = equipmentRepository.findByOrganizationIdWithFilters(
-                orgId, agreementStatus, serviceCycle, null, null, searchQuery, PageRequest.of(0, 10000)
-        );
-
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public void exportToExcel(ExportFilter filter, OutputStream out) throws IOException {
+        // Only a window of rows stays in memory; older rows are flushed to a temp file
+        SXSSFWorkbook workbook = new SXSSFWorkbook(exportProperties.getRowWindow());
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Equipment");
 
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"Serial Number", "Asset ID", "Agreement Status", "Service Cycle", "Last Service", "Next Service", "Status"};
+            String[] headers = {"Serial Number", "Asset ID", "Agreement Status", "Service Cycle", "Last Service", "Next Service", "Status", "Customer", "Site"};
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
+                sheet.setColumnWidth(i, EXCEL_COLUMN_WIDTHS[i] * 256);
             }
 
-            int rowNum = 1;
-            for (Equipment equipment : page.getContent()) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(equipment.getSerialNumber());
-                row.createCell(1).setCellValue(equipment.getCustAssetId() != null ? equipment.getCustAssetId() : "");
-                row.createCell(2).setCellValue(equipment.getAgreementStatus().name());
-                row.createCell(3).setCellValue(equipment.getServiceCycle().name());
-                row.createCell(4).setCellValue(equipment.getLastService() != null ? equipment.getLastService().toString() : "");
-                row.createCell(5).setCellValue(equipment.getNextService() != null ? equipment.getNextService().toString() : "");
-                row.createCell(6).setCellValue(stoplightService.calculateStatus(equipment).name());
-            }
-
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            int[] rowNum = {1};
+            forEachExportPage(filter, page -> {
+                for (EquipmentExportRow equipment : page) {
+                    Row row = sheet.createRow(rowNum[0]++);
+                    row.createCell(0).setCellValue(equipment.serialNumber());
+                    row.createCell(1).setCellValue(equipment.custAssetId() != null ? equipment.custAssetId() : "");
+                    row.createCell(2).setCellValue(equipment.effectiveAgreementStatus().name());
+                    row.createCell(3).setCellValue(equipment.serviceCycle().name());
+                    row.createCell(4).setCellValue(equipment.lastService() != null ? equipment.lastService().toString() : "");
+                    row.createCell(5).setCellValue(equipment.nextService() != null ? equipment.nextService().toString() : "");
+                    row.createCell(6).setCellValue(stoplightService.calculateStatus(equipment).name());
+                    row.createCell(7).setCellValue(equipment.customerName() != null ? equipment.customerName() : "");
+                    row.createCell(8).setCellValue(equipment.siteName() != null ? equipment.siteName() : "");
+                }
+            });
 
             workbook.write(out);
-            return out.toByteArray();
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    public byte[] exportToPdf(AgreementStatus agreementStatus, ServiceCycle serviceCycle, String searchQuery) throws IOException {
-        UUID orgId = TenantContext.getCurrentTenant();
-        Page<Equipment> page = equipmentRepository.findByOrganizationIdWithFilters(
-                orgId, agreementStatus, serviceCycle, null, null, searchQuery, PageRequest.of(0, 10000)
-        );
+    /**
+     * Streams the filtered equipment as CSV (optionally gzipped) from a forward-only cursor.
+     * Rows are projections rather than entities, so heap use does not grow with the number of rows.
+     */
+    public void exportToCsv(ExportFilter filter, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 1 << 16) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8), 1 << 16);
+        CsvRowWriter csv = new CsvRowWriter(writer);
+        csv.field("Serial Number").field("Asset ID").field("Agreement Status").field("Service Cycle")
+                .field("Last Service").field("Next Service").field("Status").field("Customer").field("Site").endRow();
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<EquipmentExportRow> rows = equipmentRepository.streamForExport(
+                        filter.organizationId(), filter.agreementStatus(), filter.serviceCycle(), filter.searchPattern())) {
+                    for (Iterator<EquipmentExportRow> it = rows.iterator(); it.hasNext(); ) {
+                        EquipmentExportRow equipment = it.next();
+                        csv.field(equipment.serialNumber())
+                                .field(equipment.custAssetId())
+                                .field(equipment.effectiveAgreementStatus())
+                                .field(equipment.serviceCycle())
+                                .field(equipment.lastService())
+                                .field(equipment.nextService())
+                                .field(stoplightService.calculateStatus(equipment))
+                                .field(equipment.customerName())
+                                .field(equipment.siteName())
+                                .endRow();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExportPageHandler {
+        void accept(List<EquipmentExportRow> page) throws IOException;
+    }
 
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            com.itextpdf.text.Document document = new com.itextpdf.text.Document();
-            com.itextpdf.text.pdf.PdfWriter.getInstance(document, out);
+    /**
+     * Reads the filtered equipment in keyset pages of flat rows. Each page is a single query in
+     * its own short read-only transaction; the handler runs after the connection is released.
+     */
+    private void forEachExportPage(ExportFilter filter, ExportPageHandler handler) throws IOException {
+        int pageSize = exportProperties.getPageSize();
+        String afterSerialNumber = null;
+        UUID afterId = null;
+        while (true) {
+            String pageAfterSerialNumber = afterSerialNumber;
+            UUID pageAfterId = afterId;
+            List<EquipmentExportRow> page = readOnlyTransaction.execute(status -> equipmentRepository.findExportPage(
+                    filter.organizationId(), filter.agreementStatus(), filter.serviceCycle(), filter.searchPattern(),
+                    pageAfterSerialNumber, pageAfterId, PageRequest.of(0, pageSize)));
+            if (page == null || page.isEmpty()) {
+                return;
+            }
+            handler.accept(page);
+            if (page.size() < pageSize) {
+                return;
+            }
+            EquipmentExportRow last = page.get(page.size() - 1);
+            afterSerialNumber = last.serialNumber();
+            afterId = last.id();
+        }
+    }
+
+    public void exportToPdf(ExportFilter filter, OutputStream out) throws IOException {
+        com.itextpdf.text.Document document = new com.itextpdf.text.Document();
+        try {
+            com.itextpdf.text.pdf.PdfWriter writer = com.itextpdf.text.pdf.PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
             com.itextpdf.text.Font headerFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 12, com.itextpdf.text.Font.BOLD);
@@ -322,8 +497,12 @@ public class ImportExportService {
             document.add(new com.itextpdf.text.Paragraph("Equipment Report", new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 18, com.itextpdf.text.Font.BOLD)));
             document.add(new com.itextpdf.text.Paragraph(" "));
 
+            // An incomplete table is rendered and released each time it is added to the document,
+            // so only the current page of rows is held in memory; the header repeats on every page
             com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(6);
             table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            table.setComplete(false);
 
             String[] headers = {"Serial Number", "Asset ID", "Agreement", "Cycle", "Next Service", "Status"};
             for (String header : headers) {
@@ -332,19 +511,25 @@ public class ImportExportService {
                 table.addCell(cell);
             }
 
-            for (Equipment equipment : page.getContent()) {
-                table.addCell(new com.itextpdf.text.Phrase(equipment.getSerialNumber(), cellFont));
-                table.addCell(new com.itextpdf.text.Phrase(equipment.getCustAssetId() != null ? equipment.getCustAssetId() : "", cellFont));
-                table.addCell(new com.itextpdf.text.Phrase(equipment.getAgreementStatus().name(), cellFont));
-                table.addCell(new com.itextpdf.text.Phrase(equipment.getServiceCycle().name(), cellFont));
-                table.addCell(new com.itextpdf.text.Phrase(equipment.getNextService() != null ? equipment.getNextService().toString() : "", cellFont));
-                table.addCell(new com.itextpdf.text.Phrase(stoplightService.calculateStatus(equipment).name(), cellFont));
-            }
+            forEachExportPage(filter, page -> {
+                for (EquipmentExportRow equipment : page) {
+                    table.addCell(new com.itextpdf.text.Phrase(equipment.serialNumber(), cellFont));
+                    table.addCell(new com.itextpdf.text.Phrase(equipment.custAssetId() != null ? equipment.custAssetId() : "", cellFont));
+                    table.addCell(new com.itextpdf.text.Phrase(equipment.effectiveAgreementStatus().name(), cellFont));
+                    table.addCell(new com.itextpdf.text.Phrase(equipment.serviceCycle().name(), cellFont));
+                    table.addCell(new com.itextpdf.text.Phrase(equipment.nextService() != null ? equipment.nextService().toString() : "", cellFont));
+                    table.addCell(new com.itextpdf.text.Phrase(stoplightService.calculateStatus(equipment).name(), cellFont));
+                }
+                try {
+                    document.add(table);
+                } catch (com.itextpdf.text.DocumentException e) {
+                    throw new IOException("Failed to generate PDF", e);
+                }
+            });
 
+            table.setComplete(true);
             document.add(table);
             document.close();
-
-            return out.toByteArray();
         } catch (com.itextpdf.text.DocumentException e) {
             throw new IOException("Failed to generate PDF", e);
         }
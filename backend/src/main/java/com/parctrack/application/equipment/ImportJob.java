@@ -0,0 +1,99 @@
+package com.parctrack.application.equipment;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+public class ImportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id;
+    private final UUID organizationId;
+    private final String filename;
+    private final Path uploadFile;
+    private final ImportProgress progress = new ImportProgress();
+    private final Instant createdAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failureMessage;
+    private volatile Path errorReport;
+
+    public ImportJob(UUID id, UUID organizationId, String filename, Path uploadFile) {
+        this.id = id;
+        this.organizationId = organizationId;
+        this.filename = filename;
+        this.uploadFile = uploadFile;
+    }
+
+    void start() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    void complete(Path errorReport) {
+        this.errorReport = errorReport;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.failureMessage = message;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getOrganizationId() {
+        return organizationId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Path getUploadFile() {
+        return uploadFile;
+    }
+
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public Path getErrorReport() {
+        return errorReport;
+    }
+}
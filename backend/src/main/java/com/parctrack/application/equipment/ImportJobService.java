@@ -0,0 +1,169 @@
+package com.parctrack.application.equipment;
+
+import com.opencsv.CSVWriter;
+import com.parctrack.application.dto.equipment.ImportJobStatus;
+import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.infrastructure.config.ImportProperties;
+import com.parctrack.infrastructure.security.TenantContext;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ResourceNotFoundException;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs imports in the background. Uploads are written to the job directory and processed on
+ * a bounded pool, so the request returns a job id immediately and progress is polled.
+ * Jobs are tracked in memory on the instance that accepted the upload.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    // Suggested wait before resubmitting when the queue is full
+    static final Duration QUEUE_FULL_RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final ImportExportService importExportService;
+    private final Path jobDirectory;
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ImportJobService(ImportExportService importExportService, ImportProperties importProperties) {
+        this.importExportService = importExportService;
+        this.jobDirectory = Paths.get(importProperties.getJobDirectory());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int workers = Math.max(1, importProperties.getJobWorkers());
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, importProperties.getJobQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ImportJobStatus submit(MultipartFile file, ImportOptions options) throws IOException {
+        UUID orgId = TenantContext.getCurrentTenant();
+        UUID userId = TenantContext.getCurrentUserId();
+
+        Files.createDirectories(jobDirectory);
+        UUID jobId = UUID.randomUUID();
+        Path upload = jobDirectory.resolve(jobId + ".upload");
+        file.transferTo(upload);
+
+        ImportJob job = new ImportJob(jobId, orgId, file.getOriginalFilename(), upload);
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> run(job, userId, options));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            Files.deleteIfExists(upload);
+            throw new ServiceUnavailableException("Too many imports in progress, please try again later",
+                    QUEUE_FULL_RETRY_AFTER);
+        }
+
+        return ImportJobStatus.from(job);
+    }
+
+    public ImportJobStatus getStatus(UUID jobId) {
+        return ImportJobStatus.from(findJob(jobId));
+    }
+
+    public Path getErrorReport(UUID jobId) {
+        ImportJob job = findJob(jobId);
+        if (job.getStatus() != ImportJob.Status.COMPLETED || job.getErrorReport() == null) {
+            throw new BusinessException("Error report is available once the import has completed");
+        }
+        return job.getErrorReport();
+    }
+
+    public int purgeFinishedJobs(Instant finishedBefore) {
+        int purged = 0;
+        for (ImportJob job : jobs.values()) {
+            if (job.isFinished() && job.getFinishedAt().isBefore(finishedBefore)) {
+                jobs.remove(job.getId());
+                deleteQuietly(job.getErrorReport());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private ImportJob findJob(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.getOrganizationId().equals(TenantContext.getCurrentTenant())) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, UUID userId, ImportOptions options) {
+        TenantContext.setCurrentTenant(job.getOrganizationId());
+        TenantContext.setCurrentUserId(userId);
+        job.start();
+        try {
+            ImportResult result = importExportService.importFromPath(
+                    job.getUploadFile(), job.getFilename(), options, job.getProgress());
+            job.complete(writeErrorReport(job.getId(), result));
+            logger.info("Import job {} completed: {}/{} rows imported", job.getId(), result.successCount(), result.totalRows());
+        } catch (Exception e) {
+            logger.error("Import job {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(job.getUploadFile());
+            TenantContext.clear();
+        }
+    }
+
+    private Path writeErrorReport(UUID jobId, ImportResult result) throws IOException {
+        Path report = jobDirectory.resolve(jobId + "-errors.csv");
+        try (Writer out = Files.newBufferedWriter(report, StandardCharsets.UTF_8);
+             CSVWriter writer = new CSVWriter(out)) {
+            writer.writeNext(new String[]{"row", "field", "message"});
+            for (ImportResult.ImportError error : result.errors()) {
+                writer.writeNext(new String[]{String.valueOf(error.row()), error.field(), error.message()});
+            }
+        }
+        return report;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete import file {}", path, e);
+        }
+    }
+}
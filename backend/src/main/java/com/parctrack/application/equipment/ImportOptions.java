@@ -0,0 +1,12 @@
+package com.parctrack.application.equipment;
+
+/**
+ * How an import applies its rows.
+ *
+ * @param upsertMode update equipment whose serial number already exists instead of rejecting the row
+ * @param bulkLoad   stream all rows into a staging table with {@code COPY} and merge them in one
+ *                   statement; the import commits as a whole instead of per chunk
+ * @param dryRun     validate every row, including serial collisions, without writing anything
+ */
+public record ImportOptions(boolean upsertMode, boolean bulkLoad, boolean dryRun) {
+}
@@ -0,0 +1,179 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.infrastructure.config.ImportProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Staged import pipeline. A reader thread cuts the file into batches, a shared pool of
+ * workers parses and validates the batches in parallel, and the calling thread consumes
+ * the results in file order. The queue between the stages is bounded, so a slow consumer
+ * (the database writer) holds back the reader instead of letting parsed rows pile up.
+ */
+@Service
+public class ImportPipeline {
+
+    @FunctionalInterface
+    public interface Source {
+        void read(StreamingExcelReader.RowHandler handler) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RowParser {
+        EquipmentImportRow parse(int rowNumber, String[] values);
+    }
+
+    // Either a parsed row or the validation error of that row
+    public record ParsedRow(int rowNumber, EquipmentImportRow row, String error) {}
+
+    private record RawRow(int rowNumber, String[] values) {}
+
+    private static final Future<List<ParsedRow>> END_OF_INPUT = CompletableFuture.completedFuture(List.of());
+
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final AtomicInteger readerCount = new AtomicInteger();
+
+    public ImportPipeline(ImportProperties importProperties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, importProperties.getParseWorkers()), runnable -> {
+            Thread thread = new Thread(runnable, "import-parse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = Math.max(1, importProperties.getParseBatchSize());
+        this.maxBatchesInFlight = Math.max(1, importProperties.getMaxBatchesInFlight());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs the pipeline. The first row of the source is handed to {@code headerHandler}, which
+     * returns the parser used for every following row. Returns false if the source was empty.
+     */
+    public boolean run(Source source, Function<String[], RowParser> headerHandler, Consumer<ParsedRow> sink) throws IOException {
+        BlockingQueue<Future<List<ParsedRow>>> queue = new ArrayBlockingQueue<>(maxBatchesInFlight);
+        Reader reader = new Reader(source, headerHandler, queue);
+        Thread readerThread = new Thread(reader, "import-reader-" + readerCount.incrementAndGet());
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        try {
+            Future<List<ParsedRow>> batch;
+            while ((batch = queue.take()) != END_OF_INPUT) {
+                for (ParsedRow row : batch.get()) {
+                    sink.accept(row);
+                }
+            }
+            return reader.parser != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Import failed", e.getCause());
+        } finally {
+            readerThread.interrupt();
+            queue.forEach(pending -> pending.cancel(false));
+        }
+    }
+
+    private List<ParsedRow> parse(RowParser parser, List<RawRow> rows) {
+        List<ParsedRow> parsed = new ArrayList<>(rows.size());
+        for (RawRow raw : rows) {
+            try {
+                parsed.add(new ParsedRow(raw.rowNumber(), parser.parse(raw.rowNumber(), raw.values()), null));
+            } catch (RuntimeException e) {
+                parsed.add(new ParsedRow(raw.rowNumber(), null, e.getMessage()));
+            }
+        }
+        return parsed;
+    }
+
+    private final class Reader implements Runnable {
+
+        private final Source source;
+        private final Function<String[], RowParser> headerHandler;
+        private final BlockingQueue<Future<List<ParsedRow>>> queue;
+        private volatile RowParser parser;
+        private List<RawRow> batch = new ArrayList<>(batchSize);
+
+        private Reader(Source source, Function<String[], RowParser> headerHandler, BlockingQueue<Future<List<ParsedRow>>> queue) {
+            this.source = source;
+            this.headerHandler = headerHandler;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                source.read(this::row);
+                submitBatch();
+                queue.put(END_OF_INPUT);
+            } catch (ReaderInterrupted | InterruptedException e) {
+                // The consumer gave up; nothing left to do
+            } catch (Throwable e) {
+                try {
+                    queue.put(CompletableFuture.failedFuture(e));
+                } catch (InterruptedException ignored) {
+                    // The consumer gave up
+                }
+            }
+        }
+
+        private void row(int rowNumber, String[] values) {
+            if (parser == null) {
+                parser = headerHandler.apply(values);
+                return;
+            }
+            batch.add(new RawRow(rowNumber, values));
+            if (batch.size() >= batchSize) {
+                submitBatch();
+            }
+        }
+
+        private void submitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<RawRow> rows = batch;
+            RowParser rowParser = parser;
+            batch = new ArrayList<>(batchSize);
+            try {
+                queue.put(workers.submit(() -> parse(rowParser, rows)));
+            } catch (InterruptedException e) {
+                throw new ReaderInterrupted();
+            }
+        }
+    }
+
+    // Unwinds the CSV loop or the SAX parser when the consumer stops reading
+    private static final class ReaderInterrupted extends RuntimeException {
+        private ReaderInterrupted() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.parctrack.application.equipment;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a running import, safe to read from other threads. Completion is measured
+ * on the bytes consumed from the input, which is known up front unlike the row count.
+ */
+public class ImportProgress {
+
+    private final AtomicInteger rowsProcessed = new AtomicInteger();
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile long totalBytes = -1;
+
+    public InputStream track(InputStream in, long totalBytes) {
+        this.totalBytes = totalBytes;
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesRead.addAndGet(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                bytesRead.addAndGet(skipped);
+                return skipped;
+            }
+        };
+    }
+
+    void rowProcessed() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    void addSuccess(int count) {
+        successCount.addAndGet(count);
+    }
+
+    void setErrorCount(int count) {
+        errorCount.set(count);
+    }
+
+    public int getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public int getSuccessCount() {
+        return successCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    // Fraction of the input consumed, or -1 when the size is unknown
+    public double getFractionComplete() {
+        long total = totalBytes;
+        if (total <= 0) {
+            return -1;
+        }
+        return Math.min(1.0, (double) bytesRead.get() / total);
+    }
+}
@@ -0,0 +1,30 @@
+package com.parctrack.application.equipment;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Serial numbers known to an import: the tenant's active equipment, loaded once up front,
+ * plus every serial already seen in the file. Replaces the per-row existence query.
+ */
+public class ImportSerialIndex {
+
+    private final Set<String> existing;
+    private final Set<String> seenInFile = new HashSet<>();
+
+    public ImportSerialIndex(Collection<String> existingSerialNumbers) {
+        this.existing = new HashSet<>(existingSerialNumbers);
+    }
+
+    /**
+     * Registers the serial number of a row and returns whether it matches existing equipment.
+     * Throws if the serial was already used by an earlier row of the same file.
+     */
+    public boolean register(String serialNumber) {
+        if (!seenInFile.add(serialNumber)) {
+            throw new IllegalArgumentException("Duplicate serial number in file: " + serialNumber);
+        }
+        return existing.contains(serialNumber);
+    }
+}
@@ -2,6 +2,7 @@ package com.parctrack.application.site;
 
 import com.parctrack.application.audit.AuditService;
 import com.parctrack.application.dto.site.*;
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.customer.Customer;
 import com.parctrack.domain.customer.CustomerRepository;
 import com.parctrack.domain.equipment.EquipmentRepository;
@@ -10,6 +11,7 @@ import com.parctrack.domain.site.SiteRepository;
 import com.parctrack.infrastructure.security.TenantContext;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
 import com.parctrack.infrastructure.web.GlobalExceptionHandler.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -27,16 +29,19 @@ public class SiteService {
     private final CustomerRepository customerRepository;
     private final EquipmentRepository equipmentRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SiteService(
             SiteRepository siteRepository,
             CustomerRepository customerRepository,
             EquipmentRepository equipmentRepository,
-            AuditService auditService) {
+            AuditService auditService,
+            ApplicationEventPublisher eventPublisher) {
         this.siteRepository = siteRepository;
         this.customerRepository = customerRepository;
         this.equipmentRepository = equipmentRepository;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -108,6 +113,7 @@ public class SiteService {
 
         site = siteRepository.save(site);
         auditService.logAction("SITE_CREATED", "Site", site.getId());
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId));
 
         return SiteDto.from(site);
     }
@@ -122,6 +128,8 @@ public class SiteService {
             Customer newCustomer = customerRepository.findByIdAndOrganizationId(request.customerId(), orgId)
                     .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
             site.setCustomer(newCustomer);
+            // Equipment carries its effective organization; follow the site to its new customer
+            equipmentRepository.updateOrganizationBySiteId(site.getId(), newCustomer.getOrganization().getId());
         }
 
         if (request.name() != null && !request.name().equals(site.getName())) {
@@ -146,6 +154,7 @@ public class SiteService {
 
         site = siteRepository.save(site);
         auditService.logAction("SITE_UPDATED", "Site", site.getId());
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId));
 
         return SiteDto.from(site);
     }
@@ -169,5 +178,6 @@ public class SiteService {
 
         auditService.logAction("SITE_DELETED", "Site", site.getId(),
                 "Orphaned " + equipmentList.size() + " equipment");
+        eventPublisher.publishEvent(new TenantDataChangedEvent(orgId));
     }
 }
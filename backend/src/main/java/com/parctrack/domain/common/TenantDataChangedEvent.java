@@ -0,0 +1,25 @@
+package com.parctrack.domain.common;
+
+import com.parctrack.domain.equipment.StoplightDelta;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published when equipment, customers or sites of a tenant are written. Components that cache
+ * tenant data listen for it (after commit) to invalidate what they hold. {@code equipmentIds}
+ * names the equipment that was touched when the write was limited to it; null means anything
+ * of the tenant may have changed. {@code stoplightDelta} is how the write moved stoplight
+ * counts, when the write path knows; null means they have to be recounted.
+ */
+public record TenantDataChangedEvent(UUID organizationId, Set<UUID> equipmentIds, StoplightDelta stoplightDelta) {
+
+    public TenantDataChangedEvent(UUID organizationId) {
+        this(organizationId, null, null);
+    }
+
+    public static TenantDataChangedEvent forEquipment(UUID organizationId, Set<UUID> equipmentIds,
+                                                      StoplightDelta stoplightDelta) {
+        return new TenantDataChangedEvent(organizationId, Set.copyOf(equipmentIds), stoplightDelta);
+    }
+}
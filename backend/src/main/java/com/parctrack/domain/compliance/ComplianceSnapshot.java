@@ -0,0 +1,88 @@
+package com.parctrack.domain.compliance;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Stoplight counts of one organization, or of one of its customers, as of a day. Rows are
+ * written in bulk by {@link ComplianceSnapshotRepository#insertSnapshots} and never updated.
+ */
+@Entity
+@Table(name = "compliance_snapshots")
+public class ComplianceSnapshot {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "organization_id", nullable = false)
+    private UUID organizationId;
+
+    // Null for the organization-wide row
+    @Column(name = "customer_id")
+    private UUID customerId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "green_count", nullable = false)
+    private int greenCount;
+
+    @Column(name = "yellow_count", nullable = false)
+    private int yellowCount;
+
+    @Column(name = "red_count", nullable = false)
+    private int redCount;
+
+    @Column(name = "overdue_count", nullable = false)
+    private int overdueCount;
+
+    @Column(name = "warning_count", nullable = false)
+    private int warningCount;
+
+    public ComplianceSnapshot() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getOrganizationId() {
+        return organizationId;
+    }
+
+    public UUID getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getGreenCount() {
+        return greenCount;
+    }
+
+    public int getYellowCount() {
+        return yellowCount;
+    }
+
+    public int getRedCount() {
+        return redCount;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public int getWarningCount() {
+        return warningCount;
+    }
+}
@@ -0,0 +1,13 @@
+package com.parctrack.domain.compliance;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ComplianceSnapshotRepository {
+    List<ComplianceSnapshot> findOrganizationTrend(UUID organizationId, LocalDate from, LocalDate to);
+    List<ComplianceSnapshot> findCustomerTrend(UUID organizationId, UUID customerId, LocalDate from, LocalDate to);
+    int deleteBySnapshotDate(LocalDate snapshotDate);
+    int insertSnapshots(LocalDate snapshotDate, LocalDate warningDate, Collection<String> redAgreements);
+}
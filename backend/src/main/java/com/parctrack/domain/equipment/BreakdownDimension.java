@@ -0,0 +1,7 @@
+package com.parctrack.domain.equipment;
+
+public enum BreakdownDimension {
+    CUSTOMER,
+    SITE,
+    EQUIPMENT_TYPE
+}
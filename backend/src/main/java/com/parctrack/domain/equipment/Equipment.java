@@ -12,8 +12,10 @@ import java.util.UUID;
 @Table(name = "equipment")
 public class Equipment extends BaseEntity {
 
+    // Effective tenant, denormalized from site -> customer so tenant filters hit one indexed column.
+    // Follows the site on reassignment and is kept when the equipment is orphaned.
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "organization_id")
+    @JoinColumn(name = "organization_id", nullable = false)
     private Organization organization;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -78,7 +80,7 @@ public class Equipment extends BaseEntity {
     }
 
     public Equipment(Site site, String serialNumber, ServiceCycle serviceCycle) {
-        this.site = site;
+        setSite(site);
         this.serialNumber = serialNumber;
         this.serviceCycle = serviceCycle;
         this.lifecycleStatus = LifecycleStatus.ACTIVE;
@@ -113,13 +115,7 @@ public class Equipment extends BaseEntity {
     }
 
     public Organization getOrganization() {
-        if (organization != null) {
-            return organization;
-        }
-        if (site != null && site.getCustomer() != null) {
-            return site.getCustomer().getOrganization();
-        }
-        return null;
+        return organization;
     }
 
     public void setOrganization(Organization organization) {
@@ -132,6 +128,9 @@ public class Equipment extends BaseEntity {
 
     public void setSite(Site site) {
         this.site = site;
+        if (site != null && site.getCustomer() != null) {
+            this.organization = site.getCustomer().getOrganization();
+        }
     }
 
     public EquipmentType getEquipmentType() {
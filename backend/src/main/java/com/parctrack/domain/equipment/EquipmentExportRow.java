@@ -0,0 +1,23 @@
+package com.parctrack.domain.equipment;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Flat read model for exports, selected with a constructor expression so no entities or lazy
+ * associations are loaded. {@code effectiveAgreementStatus} is the customer's status when the
+ * equipment is placed at a site, otherwise the equipment's own.
+ */
+public record EquipmentExportRow(
+        UUID id,
+        String serialNumber,
+        String custAssetId,
+        AgreementStatus effectiveAgreementStatus,
+        ServiceCycle serviceCycle,
+        Instant lastService,
+        LocalDate nextService,
+        String customerName,
+        String siteName
+) {
+}
@@ -0,0 +1,25 @@
+package com.parctrack.domain.equipment;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in a cursor-paged equipment list: the sort value and id of the last row returned.
+ * {@code value} is null when that row had no value for a nullable sort column. {@code today} is
+ * the date the first page evaluated stoplight statuses on.
+ */
+public record EquipmentKeyset(
+        EquipmentSortKey sortKey,
+        boolean descending,
+        Object value,
+        UUID id,
+        LocalDate today
+) {
+
+    public EquipmentKeyset {
+        Objects.requireNonNull(sortKey, "sortKey");
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(today, "today");
+    }
+}
@@ -4,47 +4,73 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface EquipmentRepository {
     Equipment save(Equipment equipment);
     Optional<Equipment> findById(UUID id);
     Optional<Equipment> findByIdAndOrganizationId(UUID id, UUID organizationId);
     Optional<Equipment> findBySerialNumberAndOrganizationId(String serialNumber, UUID organizationId);
-    Optional<Equipment> findBySerialNumberOrCustAssetIdAndOrganizationId(String query, UUID organizationId);
-    Optional<Equipment> findByQrCodeValueAndOrganizationId(String qrCodeValue, UUID organizationId);
-    Page<Equipment> findByOrganizationId(UUID organizationId, Pageable pageable);
+    List<Equipment> findBySerialNumberInAndOrganizationId(Collection<String> serialNumbers, UUID organizationId);
+    List<String> findSerialNumbersByOrganizationId(UUID organizationId);
+    Optional<Equipment> findByIdentifierAndOrganizationId(String code, UUID organizationId);
     Page<Equipment> findByOrganizationIdWithFilters(
             UUID organizationId,
             AgreementStatus agreementStatus,
             ServiceCycle serviceCycle,
             LocalDate nextServiceFrom,
             LocalDate nextServiceTo,
-            String searchQuery,
+            String searchPattern,
             UUID customerId,
             UUID siteId,
             UUID equipmentTypeId,
             LifecycleStatus lifecycleStatus,
             Pageable pageable);
-    Page<Equipment> findByOrganizationIdWithFilters(
+    List<EquipmentExportRow> findExportPage(
             UUID organizationId,
             AgreementStatus agreementStatus,
             ServiceCycle serviceCycle,
-            LocalDate nextServiceFrom,
-            LocalDate nextServiceTo,
-            String searchQuery,
+            String searchPattern,
+            String afterSerialNumber,
+            UUID afterId,
+            Pageable pageable);
+    Stream<EquipmentExportRow> streamForExport(
+            UUID organizationId,
+            AgreementStatus agreementStatus,
+            ServiceCycle serviceCycle,
+            String searchPattern);
+    List<Equipment> findPageAfter(
+            UUID organizationId,
+            EquipmentSearchCriteria criteria,
+            EquipmentSortKey sortKey,
+            boolean descending,
+            EquipmentKeyset after,
+            int limit);
+    Page<Equipment> findWithFilters(
+            UUID organizationId,
+            EquipmentSearchCriteria criteria,
+            EquipmentSortKey sortKey,
+            boolean descending,
             Pageable pageable);
+    long countWithFilters(UUID organizationId, EquipmentSearchCriteria criteria);
     List<Equipment> findByIdInAndOrganizationId(List<UUID> ids, UUID organizationId);
     List<Equipment> findBySiteIdIsNullAndDeletedAtIsNull();
     List<Equipment> findByProvisionalTrueAndProvisionalExpiresAtBefore(Instant now);
     List<Equipment> findBySiteId(UUID siteId);
+    int updateOrganizationBySiteId(UUID siteId, UUID organizationId);
     long countByOrganizationId(UUID organizationId);
     long countByOrganizationIdAndAgreementStatus(UUID organizationId, AgreementStatus agreementStatus);
-    long countByOrganizationIdAndNextServiceBefore(UUID organizationId, LocalDate date);
-    long countByOrganizationIdAndNextServiceBetween(UUID organizationId, LocalDate from, LocalDate to);
     long countBySiteIdIsNullAndDeletedAtIsNullAndOrganizationId(UUID organizationId);
+    StoplightCounts countStoplightStatuses(UUID organizationId, LocalDate today, LocalDate warningDate,
+                                           Collection<AgreementStatus> redAgreements);
+    List<StoplightBucket> findStoplightBuckets(UUID organizationId);
+    List<StoplightBucket> findStoplightBucketsByCustomerId(UUID customerId);
+    List<StoplightBreakdownRow> findStoplightBreakdown(UUID organizationId, LocalDate today, LocalDate warningDate,
+                                                       Collection<AgreementStatus> redAgreements);
     boolean existsBySerialNumberAndOrganizationId(String serialNumber, UUID organizationId);
     boolean existsByCustAssetIdAndOrganizationIdAndDeletedAtIsNull(String custAssetId, UUID organizationId);
     Optional<Equipment> findByCustAssetIdAndOrganizationIdAndDeletedAtIsNull(String custAssetId, UUID organizationId);
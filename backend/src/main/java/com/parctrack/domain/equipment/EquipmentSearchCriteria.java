@@ -0,0 +1,46 @@
+package com.parctrack.domain.equipment;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Optional equipment list filters; null fields are not applied. {@code today} is the date the
+ * stoplight status is evaluated on, fixed once per listing so every page agrees on it.
+ */
+public record EquipmentSearchCriteria(
+        AgreementStatus agreementStatus,
+        ServiceCycle serviceCycle,
+        LocalDate nextServiceFrom,
+        LocalDate nextServiceTo,
+        String searchQuery,
+        UUID customerId,
+        UUID siteId,
+        UUID equipmentTypeId,
+        LifecycleStatus lifecycleStatus,
+        StoplightStatus stoplightStatus,
+        LocalDate today
+) {
+    public EquipmentSearchCriteria {
+        if (today == null) today = LocalDate.now();
+    }
+
+    public String searchPattern() {
+        return searchPattern(searchQuery);
+    }
+
+    /**
+     * Case-insensitive "contains" pattern for {@code LOWER(column) LIKE :pattern ESCAPE '\'},
+     * the form served by the lower(...) trigram indexes. Returns null for a blank query.
+     */
+    public static String searchPattern(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,72 @@
+package com.parctrack.domain.equipment;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Columns the equipment list can be sorted on when paging by cursor. Each key knows how to
+ * read its value from an entity and how to restore it from the string kept in a cursor.
+ * {@link #STOPLIGHT_STATUS} is not a column: it is derived from the date the list is read on,
+ * so it has no getter and its value comes from {@link StoplightService}.
+ */
+public enum EquipmentSortKey {
+    SERIAL_NUMBER("serialNumber", false, Equipment::getSerialNumber, value -> value),
+    CUST_ASSET_ID("custAssetId", true, Equipment::getCustAssetId, value -> value),
+    AGREEMENT_STATUS("agreementStatus", false, Equipment::getAgreementStatus, AgreementStatus::valueOf),
+    SERVICE_CYCLE("serviceCycle", false, Equipment::getServiceCycle, ServiceCycle::valueOf),
+    LIFECYCLE_STATUS("lifecycleStatus", false, Equipment::getLifecycleStatus, LifecycleStatus::valueOf),
+    NEXT_SERVICE("nextService", true, Equipment::getNextService, LocalDate::parse),
+    LAST_SERVICE("lastService", true, Equipment::getLastService, Instant::parse),
+    CREATED_AT("createdAt", false, Equipment::getCreatedAt, Instant::parse),
+    UPDATED_AT("updatedAt", true, Equipment::getUpdatedAt, Instant::parse),
+    STOPLIGHT_STATUS("stoplightStatus", false, null, StoplightStatus::valueOf);
+
+    private final String property;
+    private final boolean nullable;
+    private final Function<Equipment, Object> getter;
+    private final Function<String, Object> parser;
+
+    EquipmentSortKey(String property, boolean nullable,
+                     Function<Equipment, Object> getter, Function<String, Object> parser) {
+        this.property = property;
+        this.nullable = nullable;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    public static Optional<EquipmentSortKey> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equals(property))
+                .findFirst();
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean isComputed() {
+        return getter == null;
+    }
+
+    public Object valueOf(Equipment equipment) {
+        if (getter == null) {
+            throw new IllegalStateException(name() + " is computed, not read from the entity");
+        }
+        return getter.apply(equipment);
+    }
+
+    public String format(Object value) {
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.parctrack.domain.equipment;
+
+import java.util.UUID;
+
+/**
+ * Stoplight counts of one customer, site or equipment type. Equipment without a site, or
+ * without a type, is counted in a row of that dimension with a null id and name. Site rows
+ * carry their customer's name, since site names are only unique within a customer.
+ */
+public record StoplightBreakdownRow(
+        BreakdownDimension dimension,
+        UUID id,
+        String name,
+        String customerName,
+        StoplightCounts counts
+) {
+}
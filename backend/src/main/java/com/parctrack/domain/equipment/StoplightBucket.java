@@ -0,0 +1,15 @@
+package com.parctrack.domain.equipment;
+
+import java.time.LocalDate;
+
+/**
+ * Number of active equipment sharing the inputs of {@link StoplightService#calculateStatus}: the
+ * effective agreement status and the next service date. A tenant has few distinct buckets however
+ * much equipment it holds, which keeps them cheap to store and to re-evaluate on another day.
+ */
+public record StoplightBucket(
+        AgreementStatus agreementStatus,
+        LocalDate nextService,
+        long count
+) {
+}
@@ -0,0 +1,16 @@
+package com.parctrack.domain.equipment;
+
+/**
+ * Stoplight tally of a set of active equipment, selected with a single aggregate. Green, yellow
+ * and red partition {@code total}; {@code overdue} and {@code warning} only look at the next
+ * service date, so they also count equipment that is red because of its agreement.
+ */
+public record StoplightCounts(
+        long total,
+        long green,
+        long yellow,
+        long red,
+        long overdue,
+        long warning
+) {
+}
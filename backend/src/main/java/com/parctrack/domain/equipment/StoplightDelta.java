@@ -0,0 +1,61 @@
+package com.parctrack.domain.equipment;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a write moved a tenant's equipment between {@link StoplightBucket}s, collected by the write
+ * path while it still sees the state before and after the change. Counts are signed.
+ */
+public final class StoplightDelta {
+
+    private record Key(AgreementStatus agreementStatus, LocalDate nextService) {
+    }
+
+    private final Map<Key, Long> counts = new HashMap<>();
+
+    public StoplightDelta add(StoplightBucket bucket) {
+        if (bucket != null) {
+            add(bucket.agreementStatus(), bucket.nextService(), bucket.count());
+        }
+        return this;
+    }
+
+    public StoplightDelta subtract(StoplightBucket bucket) {
+        if (bucket != null) {
+            add(bucket.agreementStatus(), bucket.nextService(), -bucket.count());
+        }
+        return this;
+    }
+
+    // Moves equipment counted in the given buckets to another agreement, keeping their dates
+    public StoplightDelta changeAgreement(List<StoplightBucket> buckets, AgreementStatus agreementStatus) {
+        for (StoplightBucket bucket : buckets) {
+            subtract(bucket);
+            add(agreementStatus, bucket.nextService(), bucket.count());
+        }
+        return this;
+    }
+
+    private void add(AgreementStatus agreementStatus, LocalDate nextService, long count) {
+        Key key = new Key(agreementStatus, nextService);
+        long sum = counts.getOrDefault(key, 0L) + count;
+        if (sum == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, sum);
+        }
+    }
+
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    public List<StoplightBucket> buckets() {
+        return counts.entrySet().stream()
+                .map(entry -> new StoplightBucket(entry.getKey().agreementStatus(), entry.getKey().nextService(), entry.getValue()))
+                .toList();
+    }
+}
@@ -3,27 +3,42 @@ package com.parctrack.domain.equipment;
 import com.parctrack.domain.customer.Customer;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
+import java.util.Set;
 
 @Service
 public class StoplightService {
 
     private static final int WARNING_DAYS_THRESHOLD = 15;
 
+    // Agreements that make equipment red regardless of dates; also used by the list queries
+    public static final Set<AgreementStatus> RED_AGREEMENT_STATUSES =
+            Set.of(AgreementStatus.OUT_OF_SCOPE, AgreementStatus.PENDING);
+
     public StoplightStatus calculateStatus(Equipment equipment) {
+        return calculateStatus(equipment, LocalDate.now());
+    }
+
+    public StoplightStatus calculateStatus(Equipment equipment, LocalDate today) {
         if (equipment.isDeleted()) {
             return StoplightStatus.RED;
         }
 
         // Get agreement status from customer if site exists, otherwise from equipment
-        AgreementStatus agreementStatus = getEffectiveAgreementStatus(equipment);
-        LocalDate nextService = equipment.getNextService();
-        LocalDate today = LocalDate.now();
+        return calculateStatus(getEffectiveAgreementStatus(equipment), equipment.getNextService(), today);
+    }
+
+    public StoplightStatus calculateStatus(EquipmentExportRow row) {
+        return calculateStatus(row.effectiveAgreementStatus(), row.nextService());
+    }
+
+    // Status of non-deleted equipment from already resolved fields, without touching associations
+    public StoplightStatus calculateStatus(AgreementStatus agreementStatus, LocalDate nextService) {
+        return calculateStatus(agreementStatus, nextService, LocalDate.now());
+    }
 
+    public StoplightStatus calculateStatus(AgreementStatus agreementStatus, LocalDate nextService, LocalDate today) {
         // Red: Out of Scope OR Pending Agreement OR overdue
-        if (agreementStatus == AgreementStatus.OUT_OF_SCOPE) {
-            return StoplightStatus.RED;
-        }
-        if (agreementStatus == AgreementStatus.PENDING) {
+        if (RED_AGREEMENT_STATUSES.contains(agreementStatus)) {
             return StoplightStatus.RED;
         }
         if (nextService != null && nextService.isBefore(today)) {
@@ -32,8 +47,7 @@ public class StoplightService {
 
         // Yellow: Within warning threshold
         if (nextService != null) {
-            LocalDate warningDate = today.plusDays(WARNING_DAYS_THRESHOLD);
-            if (!nextService.isAfter(warningDate)) {
+            if (!nextService.isAfter(warningDate(today))) {
                 return StoplightStatus.YELLOW;
             }
         }
@@ -42,6 +56,11 @@ public class StoplightService {
         return StoplightStatus.GREEN;
     }
 
+    // Last next-service date that is still yellow when evaluated on the given day
+    public static LocalDate warningDate(LocalDate today) {
+        return today.plusDays(WARNING_DAYS_THRESHOLD);
+    }
+
     public AgreementStatus getEffectiveAgreementStatus(Equipment equipment) {
         // Per spec: agreement_status is now on Customer, not Equipment
         // Use customer's agreement status if site exists
@@ -55,6 +74,14 @@ public class StoplightService {
         return equipment.getAgreementStatus();
     }
 
+    // Bucket the equipment is counted in, or null once it is deleted and no longer counted
+    public StoplightBucket bucketOf(Equipment equipment) {
+        if (equipment.isDeleted()) {
+            return null;
+        }
+        return new StoplightBucket(getEffectiveAgreementStatus(equipment), equipment.getNextService(), 1);
+    }
+
     public boolean isOverdue(Equipment equipment) {
         LocalDate nextService = equipment.getNextService();
         return nextService != null && nextService.isBefore(LocalDate.now());
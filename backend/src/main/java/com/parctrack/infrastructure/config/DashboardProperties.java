@@ -0,0 +1,37 @@
+package com.parctrack.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.dashboard")
+public class DashboardProperties {
+
+    private boolean cacheEnabled = true;
+    private int cacheTtlSeconds = 300;
+    private boolean countersEnabled = true;
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public int getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(int cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public boolean isCountersEnabled() {
+        return countersEnabled;
+    }
+
+    public void setCountersEnabled(boolean countersEnabled) {
+        this.countersEnabled = countersEnabled;
+    }
+}
@@ -0,0 +1,64 @@
+package com.parctrack.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    private int pageSize = 1000;
+    private int rowWindow = 500;
+    private boolean cacheEnabled = true;
+    private String cacheDirectory = System.getProperty("java.io.tmpdir") + "/parctrack-exports";
+    private long cacheMaxSizeMb = 1024;
+    private int cacheMaxAgeMinutes = 240;
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getRowWindow() {
+        return rowWindow;
+    }
+
+    public void setRowWindow(int rowWindow) {
+        this.rowWindow = rowWindow;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public long getCacheMaxSizeMb() {
+        return cacheMaxSizeMb;
+    }
+
+    public void setCacheMaxSizeMb(long cacheMaxSizeMb) {
+        this.cacheMaxSizeMb = cacheMaxSizeMb;
+    }
+
+    public int getCacheMaxAgeMinutes() {
+        return cacheMaxAgeMinutes;
+    }
+
+    public void setCacheMaxAgeMinutes(int cacheMaxAgeMinutes) {
+        this.cacheMaxAgeMinutes = cacheMaxAgeMinutes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.parctrack.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    private int chunkSize = 1000;
+    private int batchSize = 100;
+    private String jobDirectory = System.getProperty("java.io.tmpdir") + "/parctrack-imports";
+    private int jobWorkers = 2;
+    private int jobQueueCapacity = 20;
+    private int jobRetentionHours = 24;
+    private int parseWorkers = Runtime.getRuntime().availableProcessors();
+    private int parseBatchSize = 500;
+    private int maxBatchesInFlight = 16;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public String getJobDirectory() {
+        return jobDirectory;
+    }
+
+    public void setJobDirectory(String jobDirectory) {
+        this.jobDirectory = jobDirectory;
+    }
+
+    public int getJobWorkers() {
+        return jobWorkers;
+    }
+
+    public void setJobWorkers(int jobWorkers) {
+        this.jobWorkers = jobWorkers;
+    }
+
+    public int getJobQueueCapacity() {
+        return jobQueueCapacity;
+    }
+
+    public void setJobQueueCapacity(int jobQueueCapacity) {
+        this.jobQueueCapacity = jobQueueCapacity;
+    }
+
+    public int getJobRetentionHours() {
+        return jobRetentionHours;
+    }
+
+    public void setJobRetentionHours(int jobRetentionHours) {
+        this.jobRetentionHours = jobRetentionHours;
+    }
+
+    public int getParseWorkers() {
+        return parseWorkers;
+    }
+
+    public void setParseWorkers(int parseWorkers) {
+        this.parseWorkers = parseWorkers;
+    }
+
+    public int getParseBatchSize() {
+        return parseBatchSize;
+    }
+
+    public void setParseBatchSize(int parseBatchSize) {
+        this.parseBatchSize = parseBatchSize;
+    }
+
+    public int getMaxBatchesInFlight() {
+        return maxBatchesInFlight;
+    }
+
+    public void setMaxBatchesInFlight(int maxBatchesInFlight) {
+        this.maxBatchesInFlight = maxBatchesInFlight;
+    }
+}
@@ -0,0 +1,55 @@
+package com.parctrack.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.lookup-cache")
+public class LookupCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntriesPerTenant = 10000;
+    private int ttlSeconds = 300;
+    private int maxMissesPerTenant = 2000;
+    private int missTtlSeconds = 30;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntriesPerTenant() {
+        return maxEntriesPerTenant;
+    }
+
+    public void setMaxEntriesPerTenant(int maxEntriesPerTenant) {
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+    }
+
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(int ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public int getMaxMissesPerTenant() {
+        return maxMissesPerTenant;
+    }
+
+    public void setMaxMissesPerTenant(int maxMissesPerTenant) {
+        this.maxMissesPerTenant = maxMissesPerTenant;
+    }
+
+    public int getMissTtlSeconds() {
+        return missTtlSeconds;
+    }
+
+    public void setMissTtlSeconds(int missTtlSeconds) {
+        this.missTtlSeconds = missTtlSeconds;
+    }
+}
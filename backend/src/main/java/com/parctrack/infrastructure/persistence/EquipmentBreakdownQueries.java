@@ -0,0 +1,18 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.StoplightBreakdownRow;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Repository fragment for the dashboard breakdown, a native GROUPING SETS query that JPQL cannot express
+public interface EquipmentBreakdownQueries {
+
+    List<StoplightBreakdownRow> findStoplightBreakdown(
+            UUID organizationId,
+            LocalDate today,
+            LocalDate warningDate,
+            Collection<AgreementStatus> redAgreements);
+}
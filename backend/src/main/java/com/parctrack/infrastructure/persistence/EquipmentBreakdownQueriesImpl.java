@@ -0,0 +1,81 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.BreakdownDimension;
+import com.parctrack.domain.equipment.StoplightBreakdownRow;
+import com.parctrack.domain.equipment.StoplightCounts;
+import com.parctrack.domain.equipment.StoplightService;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Counts the tenant's active equipment per customer, per site and per equipment type in one
+ * scan: the three grouping sets are aggregated side by side, with the same rules as
+ * {@link StoplightService}. In each set the other sets' columns are null, so GROUPING() tells
+ * the dimension apart from a real null group (equipment without a site or without a type).
+ */
+class EquipmentBreakdownQueriesImpl implements EquipmentBreakdownQueries {
+
+    private static final String BREAKDOWN = "SELECT " +
+            "CASE WHEN GROUPING(site_id) = 0 THEN 'SITE' WHEN GROUPING(customer_id) = 0 THEN 'CUSTOMER' " +
+            "ELSE 'EQUIPMENT_TYPE' END, " +
+            "CASE WHEN GROUPING(site_id) = 0 THEN site_id WHEN GROUPING(customer_id) = 0 THEN customer_id " +
+            "ELSE equipment_type_id END, " +
+            "CASE WHEN GROUPING(site_id) = 0 THEN site_name WHEN GROUPING(customer_id) = 0 THEN customer_name " +
+            "ELSE equipment_type_name END, " +
+            "CASE WHEN GROUPING(site_id) = 0 THEN customer_name END, " +
+            "count(*), " +
+            "count(*) FILTER (WHERE NOT red AND (next_service IS NULL OR next_service > :warningDate)), " +
+            "count(*) FILTER (WHERE NOT red AND next_service <= :warningDate), " +
+            "count(*) FILTER (WHERE red), " +
+            "count(*) FILTER (WHERE next_service < :today), " +
+            "count(*) FILTER (WHERE next_service BETWEEN :today AND :warningDate) " +
+            "FROM (SELECT c.id AS customer_id, c.name AS customer_name, s.id AS site_id, s.name AS site_name, " +
+            "t.id AS equipment_type_id, t.name AS equipment_type_name, e.next_service, " +
+            "COALESCE(COALESCE(c.agreement_status, e.agreement_status) IN (:redAgreements) OR e.next_service < :today, false) AS red " +
+            "FROM equipment e LEFT JOIN sites s ON s.id = e.site_id LEFT JOIN customers c ON c.id = s.customer_id " +
+            "LEFT JOIN equipment_types t ON t.id = e.equipment_type_id " +
+            "WHERE e.organization_id = :organizationId AND e.deleted_at IS NULL) active " +
+            "GROUP BY GROUPING SETS ((customer_id, customer_name), (site_id, site_name, customer_name), " +
+            "(equipment_type_id, equipment_type_name))";
+
+    private final EntityManager entityManager;
+
+    EquipmentBreakdownQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<StoplightBreakdownRow> findStoplightBreakdown(UUID organizationId, LocalDate today,
+                                                              LocalDate warningDate,
+                                                              Collection<AgreementStatus> redAgreements) {
+        List<?> rows = entityManager.createNativeQuery(BREAKDOWN)
+                .setParameter("organizationId", organizationId)
+                .setParameter("today", today)
+                .setParameter("warningDate", warningDate)
+                .setParameter("redAgreements", redAgreements.stream().map(AgreementStatus::name).toList())
+                .getResultList();
+        return rows.stream()
+                .map(Object[].class::cast)
+                .map(EquipmentBreakdownQueriesImpl::toRow)
+                .toList();
+    }
+
+    private static StoplightBreakdownRow toRow(Object[] row) {
+        StoplightCounts counts = new StoplightCounts(
+                count(row[4]), count(row[5]), count(row[6]), count(row[7]), count(row[8]), count(row[9]));
+        return new StoplightBreakdownRow(
+                BreakdownDimension.valueOf((String) row[0]),
+                (UUID) row[1],
+                (String) row[2],
+                (String) row[3],
+                counts);
+    }
+
+    private static long count(Object value) {
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,28 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentExportRow;
+import com.parctrack.domain.equipment.ServiceCycle;
+import org.springframework.data.domain.Pageable;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Repository fragment for the export read model; like the lists, only the filters that are set end up in the query
+public interface EquipmentExportQueries {
+
+    List<EquipmentExportRow> findExportPage(
+            UUID organizationId,
+            AgreementStatus agreementStatus,
+            ServiceCycle serviceCycle,
+            String searchPattern,
+            String afterSerialNumber,
+            UUID afterId,
+            Pageable pageable);
+
+    Stream<EquipmentExportRow> streamForExport(
+            UUID organizationId,
+            AgreementStatus agreementStatus,
+            ServiceCycle serviceCycle,
+            String searchPattern);
+}
@@ -0,0 +1,93 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentExportRow;
+import com.parctrack.domain.equipment.ServiceCycle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Builds the export queries over the flat {@link EquipmentExportRow} projection. As in
+ * {@link EquipmentListQueriesImpl}, a search term is only matched when one is given, so the
+ * planner can use the trigram indexes instead of a generic plan for an "IS NULL OR" branch.
+ */
+class EquipmentExportQueriesImpl implements EquipmentExportQueries {
+
+    // The site and customer joins are outer so unplaced equipment is included
+    private static final String EXPORT_ROW_SELECT = "SELECT new com.parctrack.domain.equipment.EquipmentExportRow(" +
+            "e.id, e.serialNumber, e.custAssetId, COALESCE(c.agreementStatus, e.agreementStatus), e.serviceCycle, " +
+            "e.lastService, e.nextService, c.name, s.name) " +
+            "FROM Equipment e LEFT JOIN e.site s LEFT JOIN s.customer c";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    EquipmentExportQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Keyset page ordered by (serialNumber, id); pass null for the first page
+    @Override
+    public List<EquipmentExportRow> findExportPage(UUID organizationId, AgreementStatus agreementStatus,
+                                                   ServiceCycle serviceCycle, String searchPattern,
+                                                   String afterSerialNumber, UUID afterId, Pageable pageable) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder(EXPORT_ROW_SELECT);
+        appendFilters(jpql, params, organizationId, agreementStatus, serviceCycle, searchPattern);
+        if (afterSerialNumber != null) {
+            jpql.append(" AND (e.serialNumber > :afterSerialNumber OR (e.serialNumber = :afterSerialNumber AND e.id > :afterId))");
+            params.put("afterSerialNumber", afterSerialNumber);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY e.serialNumber, e.id");
+
+        return createQuery(jpql, params).setMaxResults(pageable.getPageSize()).getResultList();
+    }
+
+    // Forward-only cursor over the same projection
+    @Override
+    public Stream<EquipmentExportRow> streamForExport(UUID organizationId, AgreementStatus agreementStatus,
+                                                      ServiceCycle serviceCycle, String searchPattern) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder(EXPORT_ROW_SELECT);
+        appendFilters(jpql, params, organizationId, agreementStatus, serviceCycle, searchPattern);
+
+        return createQuery(jpql, params)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    // The agreement filter matches the effective status the row exports, not the equipment's own
+    private void appendFilters(StringBuilder jpql, Map<String, Object> params, UUID organizationId,
+                               AgreementStatus agreementStatus, ServiceCycle serviceCycle, String searchPattern) {
+        jpql.append(" WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL");
+        params.put("organizationId", organizationId);
+
+        if (agreementStatus != null) {
+            jpql.append(" AND COALESCE(c.agreementStatus, e.agreementStatus) = :agreementStatus");
+            params.put("agreementStatus", agreementStatus);
+        }
+        if (serviceCycle != null) {
+            jpql.append(" AND e.serviceCycle = :serviceCycle");
+            params.put("serviceCycle", serviceCycle);
+        }
+        if (searchPattern != null) {
+            jpql.append(" AND (").append(JpaEquipmentRepository.SEARCH_MATCH).append(")");
+            params.put("searchPattern", searchPattern);
+        }
+    }
+
+    private TypedQuery<EquipmentExportRow> createQuery(StringBuilder jpql, Map<String, Object> params) {
+        TypedQuery<EquipmentExportRow> query = entityManager.createQuery(jpql.toString(), EquipmentExportRow.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
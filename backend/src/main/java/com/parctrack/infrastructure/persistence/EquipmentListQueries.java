@@ -0,0 +1,31 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.Equipment;
+import com.parctrack.domain.equipment.EquipmentKeyset;
+import com.parctrack.domain.equipment.EquipmentSearchCriteria;
+import com.parctrack.domain.equipment.EquipmentSortKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import java.util.List;
+import java.util.UUID;
+
+// Repository fragment for the filtered equipment lists; the queries are built per sort key and filter set
+public interface EquipmentListQueries {
+
+    List<Equipment> findPageAfter(
+            UUID organizationId,
+            EquipmentSearchCriteria criteria,
+            EquipmentSortKey sortKey,
+            boolean descending,
+            EquipmentKeyset after,
+            int limit);
+
+    Page<Equipment> findWithFilters(
+            UUID organizationId,
+            EquipmentSearchCriteria criteria,
+            EquipmentSortKey sortKey,
+            boolean descending,
+            Pageable pageable);
+
+    long countWithFilters(UUID organizationId, EquipmentSearchCriteria criteria);
+}
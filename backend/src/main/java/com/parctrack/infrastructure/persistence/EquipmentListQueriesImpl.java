@@ -0,0 +1,219 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.equipment.Equipment;
+import com.parctrack.domain.equipment.EquipmentKeyset;
+import com.parctrack.domain.equipment.EquipmentSearchCriteria;
+import com.parctrack.domain.equipment.EquipmentSortKey;
+import com.parctrack.domain.equipment.StoplightService;
+import com.parctrack.domain.equipment.StoplightStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the equipment list queries per sort key and filter set. Cursor pages seek on
+ * (sort column, id) instead of skipping rows, so every page costs the same however deep the
+ * client has scrolled. Ascending pages put nulls last and descending pages put them first,
+ * which is PostgreSQL's default, so the sort column's index can be walked either way.
+ * Only the filters that are set end up in the query, so a search term never leaves an
+ * "IS NULL OR" branch behind that would keep the planner off the trigram indexes.
+ *
+ * <p>The stoplight status is evaluated in SQL with the same rules as {@link StoplightService},
+ * on the criteria's {@code today}. The filter is spelled out per status as next_service ranges
+ * so the (organization_id, next_service) index applies; the sort uses the rank below.
+ */
+class EquipmentListQueriesImpl implements EquipmentListQueries {
+
+    // Customer agreement wins over the equipment's own; customers.agreement_status is not null
+    private static final String EFFECTIVE_AGREEMENT = "COALESCE(c.agreementStatus, e.agreementStatus)";
+
+    // StoplightStatus ordinal: GREEN 0, YELLOW 1, RED 2
+    private static final String STOPLIGHT_RANK = "CASE"
+            + " WHEN e.deletedAt IS NOT NULL OR " + EFFECTIVE_AGREEMENT + " IN :redAgreements"
+            + " OR e.nextService < :today THEN 2"
+            + " WHEN e.nextService <= :warningDate THEN 1"
+            + " ELSE 0 END";
+
+    private final EntityManager entityManager;
+
+    EquipmentListQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Equipment> findPageAfter(UUID organizationId, EquipmentSearchCriteria criteria,
+                                         EquipmentSortKey sortKey, boolean descending,
+                                         EquipmentKeyset after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = select("e", criteria, sortKey);
+        appendFilters(jpql, params, organizationId, criteria);
+        if (after != null) {
+            appendSeek(jpql, params, criteria, sortKey, descending, after);
+        }
+
+        appendOrderBy(jpql, params, criteria, sortKey, descending);
+
+        TypedQuery<Equipment> query = entityManager.createQuery(jpql.toString(), Equipment.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Page<Equipment> findWithFilters(UUID organizationId, EquipmentSearchCriteria criteria,
+                                           EquipmentSortKey sortKey, boolean descending, Pageable pageable) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = select("e", criteria, sortKey);
+        appendFilters(jpql, params, organizationId, criteria);
+        appendOrderBy(jpql, params, criteria, sortKey, descending);
+
+        TypedQuery<Equipment> query = entityManager.createQuery(jpql.toString(), Equipment.class);
+        params.forEach(query::setParameter);
+        List<Equipment> content = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countWithFilters(organizationId, criteria));
+    }
+
+    @Override
+    public long countWithFilters(UUID organizationId, EquipmentSearchCriteria criteria) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = select("COUNT(e)", criteria, null);
+        appendFilters(jpql, params, organizationId, criteria);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    // Joins the customer only when the stoplight status is filtered or sorted on
+    private StringBuilder select(String projection, EquipmentSearchCriteria criteria, EquipmentSortKey sortKey) {
+        StringBuilder jpql = new StringBuilder("SELECT ").append(projection).append(" FROM Equipment e");
+        if (criteria.stoplightStatus() != null || sortKey == EquipmentSortKey.STOPLIGHT_STATUS) {
+            jpql.append(" LEFT JOIN e.site s LEFT JOIN s.customer c");
+        }
+        return jpql;
+    }
+
+    private void appendFilters(StringBuilder jpql, Map<String, Object> params,
+                               UUID organizationId, EquipmentSearchCriteria criteria) {
+        jpql.append(" WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL");
+        params.put("organizationId", organizationId);
+
+        if (criteria.agreementStatus() != null) {
+            jpql.append(" AND e.agreementStatus = :agreementStatus");
+            params.put("agreementStatus", criteria.agreementStatus());
+        }
+        if (criteria.serviceCycle() != null) {
+            jpql.append(" AND e.serviceCycle = :serviceCycle");
+            params.put("serviceCycle", criteria.serviceCycle());
+        }
+        if (criteria.nextServiceFrom() != null) {
+            jpql.append(" AND e.nextService >= :nextServiceFrom");
+            params.put("nextServiceFrom", criteria.nextServiceFrom());
+        }
+        if (criteria.nextServiceTo() != null) {
+            jpql.append(" AND e.nextService <= :nextServiceTo");
+            params.put("nextServiceTo", criteria.nextServiceTo());
+        }
+        String searchPattern = criteria.searchPattern();
+        if (searchPattern != null) {
+            jpql.append(" AND (").append(JpaEquipmentRepository.SEARCH_MATCH).append(")");
+            params.put("searchPattern", searchPattern);
+        }
+        if (criteria.customerId() != null) {
+            jpql.append(" AND e.site.customer.id = :customerId");
+            params.put("customerId", criteria.customerId());
+        }
+        if (criteria.siteId() != null) {
+            jpql.append(" AND e.site.id = :siteId");
+            params.put("siteId", criteria.siteId());
+        }
+        if (criteria.equipmentTypeId() != null) {
+            jpql.append(" AND e.equipmentType.id = :equipmentTypeId");
+            params.put("equipmentTypeId", criteria.equipmentTypeId());
+        }
+        if (criteria.lifecycleStatus() != null) {
+            jpql.append(" AND e.lifecycleStatus = :lifecycleStatus");
+            params.put("lifecycleStatus", criteria.lifecycleStatus());
+        }
+        if (criteria.stoplightStatus() != null) {
+            appendStoplightFilter(jpql, params, criteria.stoplightStatus(), criteria.today());
+        }
+    }
+
+    // Deleted equipment is red too, but the list never includes it, so the filter can ignore it
+    private void appendStoplightFilter(StringBuilder jpql, Map<String, Object> params,
+                                       StoplightStatus status, LocalDate today) {
+        params.put("redAgreements", StoplightService.RED_AGREEMENT_STATUSES);
+        switch (status) {
+            case RED -> {
+                jpql.append(" AND (").append(EFFECTIVE_AGREEMENT).append(" IN :redAgreements OR e.nextService < :today)");
+                params.put("today", today);
+            }
+            case YELLOW -> {
+                jpql.append(" AND e.nextService >= :today AND e.nextService <= :warningDate AND ")
+                        .append(EFFECTIVE_AGREEMENT).append(" NOT IN :redAgreements");
+                params.put("today", today);
+                params.put("warningDate", StoplightService.warningDate(today));
+            }
+            case GREEN -> {
+                jpql.append(" AND (e.nextService IS NULL OR e.nextService > :warningDate) AND ")
+                        .append(EFFECTIVE_AGREEMENT).append(" NOT IN :redAgreements");
+                params.put("warningDate", StoplightService.warningDate(today));
+            }
+        }
+    }
+
+    private String sortExpression(Map<String, Object> params, EquipmentSearchCriteria criteria,
+                                  EquipmentSortKey sortKey) {
+        if (sortKey != EquipmentSortKey.STOPLIGHT_STATUS) {
+            return "e." + sortKey.getProperty();
+        }
+        params.put("redAgreements", StoplightService.RED_AGREEMENT_STATUSES);
+        params.put("today", criteria.today());
+        params.put("warningDate", StoplightService.warningDate(criteria.today()));
+        return STOPLIGHT_RANK;
+    }
+
+    private void appendOrderBy(StringBuilder jpql, Map<String, Object> params, EquipmentSearchCriteria criteria,
+                               EquipmentSortKey sortKey, boolean descending) {
+        String column = sortExpression(params, criteria, sortKey);
+        jpql.append(descending
+                ? " ORDER BY " + column + " DESC NULLS FIRST, e.id DESC"
+                : " ORDER BY " + column + " ASC NULLS LAST, e.id ASC");
+    }
+
+    // Rows strictly after the keyset in (column, id) order. The >= / <= bound on the column is
+    // redundant with the OR below but gives the planner an index condition to start the scan at.
+    private void appendSeek(StringBuilder jpql, Map<String, Object> params, EquipmentSearchCriteria criteria,
+                            EquipmentSortKey sortKey, boolean descending, EquipmentKeyset after) {
+        String column = sortExpression(params, criteria, sortKey);
+        String idCompare = descending ? "e.id < :afterId" : "e.id > :afterId";
+        params.put("afterId", after.id());
+
+        if (after.value() == null) {
+            // Descending pages start with the nulls; ascending pages end with them
+            jpql.append(descending
+                    ? " AND ((" + column + " IS NULL AND " + idCompare + ") OR " + column + " IS NOT NULL)"
+                    : " AND " + column + " IS NULL AND " + idCompare);
+            return;
+        }
+
+        params.put("afterValue", after.value() instanceof StoplightStatus status ? status.ordinal() : after.value());
+        String op = descending ? "<" : ">";
+        String seek = column + " " + op + "= :afterValue AND (" + column + " " + op + " :afterValue OR " + idCompare + ")";
+        if (sortKey.isNullable() && !descending) {
+            jpql.append(" AND ((").append(seek).append(") OR ").append(column).append(" IS NULL)");
+        } else {
+            jpql.append(" AND ").append(seek);
+        }
+    }
+}
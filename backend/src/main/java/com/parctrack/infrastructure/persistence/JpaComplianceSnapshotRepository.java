@@ -0,0 +1,56 @@
+package com.parctrack.infrastructure.persistence;
+
+import com.parctrack.domain.compliance.ComplianceSnapshot;
+import com.parctrack.domain.compliance.ComplianceSnapshotRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface JpaComplianceSnapshotRepository extends JpaRepository<ComplianceSnapshot, UUID>, ComplianceSnapshotRepository {
+
+    @Override
+    @Query("SELECT s FROM ComplianceSnapshot s WHERE s.organizationId = :organizationId AND s.customerId IS NULL " +
+           "AND s.snapshotDate BETWEEN :from AND :to ORDER BY s.snapshotDate")
+    List<ComplianceSnapshot> findOrganizationTrend(@Param("organizationId") UUID organizationId,
+                                                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Override
+    @Query("SELECT s FROM ComplianceSnapshot s WHERE s.organizationId = :organizationId AND s.customerId = :customerId " +
+           "AND s.snapshotDate BETWEEN :from AND :to ORDER BY s.snapshotDate")
+    List<ComplianceSnapshot> findCustomerTrend(@Param("organizationId") UUID organizationId, @Param("customerId") UUID customerId,
+                                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Override
+    @Modifying
+    @Query("DELETE FROM ComplianceSnapshot s WHERE s.snapshotDate = :snapshotDate")
+    int deleteBySnapshotDate(@Param("snapshotDate") LocalDate snapshotDate);
+
+    // Every organization and every customer in one scan of active equipment, with the
+    // StoplightService rules. The (organization, customer) set also yields a row for unplaced
+    // equipment with a null customer; HAVING drops it so it cannot pass for the organization row.
+    @Override
+    @Modifying
+    @Query(value = "INSERT INTO compliance_snapshots (id, organization_id, customer_id, snapshot_date, total_count, " +
+                   "green_count, yellow_count, red_count, overdue_count, warning_count) " +
+                   "SELECT gen_random_uuid(), organization_id, customer_id, :snapshotDate, count(*), " +
+                   "count(*) FILTER (WHERE NOT red AND (next_service IS NULL OR next_service > :warningDate)), " +
+                   "count(*) FILTER (WHERE NOT red AND next_service <= :warningDate), " +
+                   "count(*) FILTER (WHERE red), " +
+                   "count(*) FILTER (WHERE next_service < :snapshotDate), " +
+                   "count(*) FILTER (WHERE next_service BETWEEN :snapshotDate AND :warningDate) " +
+                   "FROM (SELECT e.organization_id, c.id AS customer_id, e.next_service, " +
+                   "COALESCE(COALESCE(c.agreement_status, e.agreement_status) IN (:redAgreements) OR e.next_service < :snapshotDate, false) AS red " +
+                   "FROM equipment e LEFT JOIN sites s ON s.id = e.site_id LEFT JOIN customers c ON c.id = s.customer_id " +
+                   "WHERE e.deleted_at IS NULL) active " +
+                   "GROUP BY GROUPING SETS ((organization_id), (organization_id, customer_id)) " +
+                   "HAVING GROUPING(customer_id) = 1 OR customer_id IS NOT NULL", nativeQuery = true)
+    int insertSnapshots(@Param("snapshotDate") LocalDate snapshotDate, @Param("warningDate") LocalDate warningDate,
+                        @Param("redAgreements") Collection<String> redAgreements);
+}
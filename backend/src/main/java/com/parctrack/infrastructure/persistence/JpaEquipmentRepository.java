@@ -4,46 +4,71 @@ import com.parctrack.domain.equipment.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface JpaEquipmentRepository extends JpaRepository<Equipment, UUID>, EquipmentRepository {
-
-    @Override
-    @Query("SELECT e FROM Equipment e WHERE e.id = :id AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+public interface JpaEquipmentRepository extends JpaRepository<Equipment, UUID>, EquipmentRepository, EquipmentListQueries,
+        EquipmentExportQueries, EquipmentBreakdownQueries {
+
+    // Case-insensitive substring match served by the lower(...) trigram indexes; bind
+    // EquipmentSearchCriteria.searchPattern(query)
+    String SEARCH_MATCH = "LOWER(e.serialNumber) LIKE :searchPattern ESCAPE '\\' " +
+            "OR LOWER(e.custAssetId) LIKE :searchPattern ESCAPE '\\' " +
+            "OR LOWER(e.qrCodeValue) LIKE :searchPattern ESCAPE '\\'";
+
+    // StoplightService rules over "FROM Equipment e LEFT JOIN e.site s LEFT JOIN s.customer c"; bind
+    // StoplightService.RED_AGREEMENT_STATUSES, today and StoplightService.warningDate(today)
+    String STOPLIGHT_RED = "(COALESCE(c.agreementStatus, e.agreementStatus) IN :redAgreements OR e.nextService < :today)";
+    String STOPLIGHT_COUNTS = "COUNT(e), " +
+            "COALESCE(SUM(CASE WHEN " + STOPLIGHT_RED + " OR e.nextService <= :warningDate THEN 0 ELSE 1 END), 0), " +
+            "COALESCE(SUM(CASE WHEN " + STOPLIGHT_RED + " THEN 0 WHEN e.nextService <= :warningDate THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN " + STOPLIGHT_RED + " THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN e.nextService < :today THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN e.nextService BETWEEN :today AND :warningDate THEN 1 ELSE 0 END), 0)";
+
+    @Override
+    @Query("SELECT e FROM Equipment e WHERE e.id = :id AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     Optional<Equipment> findByIdAndOrganizationId(@Param("id") UUID id, @Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT e FROM Equipment e WHERE e.serialNumber = :serialNumber AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Query("SELECT e FROM Equipment e WHERE e.serialNumber = :serialNumber AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     Optional<Equipment> findBySerialNumberAndOrganizationId(@Param("serialNumber") String serialNumber, @Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT e FROM Equipment e WHERE (e.serialNumber = :query OR e.custAssetId = :query OR e.qrCodeValue = :query) AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
-    Optional<Equipment> findBySerialNumberOrCustAssetIdAndOrganizationId(@Param("query") String query, @Param("organizationId") UUID organizationId);
+    @Query("SELECT e FROM Equipment e WHERE e.serialNumber IN :serialNumbers AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
+    List<Equipment> findBySerialNumberInAndOrganizationId(@Param("serialNumbers") Collection<String> serialNumbers, @Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT e FROM Equipment e WHERE e.qrCodeValue = :qrCodeValue AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL ORDER BY e.createdAt ASC")
-    Optional<Equipment> findByQrCodeValueAndOrganizationId(@Param("qrCodeValue") String qrCodeValue, @Param("organizationId") UUID organizationId);
+    @Query("SELECT e.serialNumber FROM Equipment e WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL")
+    List<String> findSerialNumbersByOrganizationId(@Param("organizationId") UUID organizationId);
 
+    // One probe of idx_equipment_identifiers_lookup whatever kind of code was scanned. The table is
+    // maintained by a trigger on equipment (see 007-equipment-identifiers.xml); serial numbers win
+    // over asset IDs, asset IDs over QR codes, and the oldest equipment wins within a kind.
     @Override
-    @Query("SELECT e FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
-    Page<Equipment> findByOrganizationId(@Param("organizationId") UUID organizationId, Pageable pageable);
+    @Query(value = "SELECT e.* FROM equipment_identifiers i JOIN equipment e ON e.id = i.equipment_id " +
+                   "WHERE i.organization_id = :organizationId AND i.code = :code AND e.deleted_at IS NULL " +
+                   "ORDER BY CASE i.kind WHEN 'SERIAL_NUMBER' THEN 0 WHEN 'CUST_ASSET_ID' THEN 1 ELSE 2 END, e.created_at " +
+                   "LIMIT 1", nativeQuery = true)
+    Optional<Equipment> findByIdentifierAndOrganizationId(@Param("code") String code, @Param("organizationId") UUID organizationId);
 
     @Override
     @Query("SELECT e FROM Equipment e LEFT JOIN e.site s LEFT JOIN s.customer c WHERE " +
-           "(e.organization.id = :organizationId OR c.organization.id = :organizationId) AND e.deletedAt IS NULL " +
+           "e.organization.id = :organizationId AND e.deletedAt IS NULL " +
            "AND (:agreementStatus IS NULL OR e.agreementStatus = :agreementStatus) " +
            "AND (:serviceCycle IS NULL OR e.serviceCycle = :serviceCycle) " +
            "AND (:nextServiceFrom IS NULL OR e.nextService >= :nextServiceFrom) " +
            "AND (:nextServiceTo IS NULL OR e.nextService <= :nextServiceTo) " +
-           "AND (:searchQuery IS NULL OR e.serialNumber LIKE %:searchQuery% OR e.custAssetId LIKE %:searchQuery% OR e.qrCodeValue LIKE %:searchQuery%) " +
+           "AND (:searchPattern IS NULL OR " + SEARCH_MATCH + ") " +
            "AND (:customerId IS NULL OR c.id = :customerId) " +
            "AND (:siteId IS NULL OR s.id = :siteId) " +
            "AND (:equipmentTypeId IS NULL OR e.equipmentType.id = :equipmentTypeId) " +
@@ -54,7 +79,7 @@ public interface JpaEquipmentRepository extends JpaRepository<Equipment, UUID>,
             @Param("serviceCycle") ServiceCycle serviceCycle,
             @Param("nextServiceFrom") LocalDate nextServiceFrom,
             @Param("nextServiceTo") LocalDate nextServiceTo,
-            @Param("searchQuery") String searchQuery,
+            @Param("searchPattern") String searchPattern,
             @Param("customerId") UUID customerId,
             @Param("siteId") UUID siteId,
             @Param("equipmentTypeId") UUID equipmentTypeId,
@@ -62,23 +87,7 @@ public interface JpaEquipmentRepository extends JpaRepository<Equipment, UUID>,
             Pageable pageable);
 
     @Override
-    @Query("SELECT e FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL " +
-           "AND (:agreementStatus IS NULL OR e.agreementStatus = :agreementStatus) " +
-           "AND (:serviceCycle IS NULL OR e.serviceCycle = :serviceCycle) " +
-           "AND (:nextServiceFrom IS NULL OR e.nextService >= :nextServiceFrom) " +
-           "AND (:nextServiceTo IS NULL OR e.nextService <= :nextServiceTo) " +
-           "AND (:searchQuery IS NULL OR e.serialNumber LIKE %:searchQuery% OR e.custAssetId LIKE %:searchQuery%)")
-    Page<Equipment> findByOrganizationIdWithFilters(
-            @Param("organizationId") UUID organizationId,
-            @Param("agreementStatus") AgreementStatus agreementStatus,
-            @Param("serviceCycle") ServiceCycle serviceCycle,
-            @Param("nextServiceFrom") LocalDate nextServiceFrom,
-            @Param("nextServiceTo") LocalDate nextServiceTo,
-            @Param("searchQuery") String searchQuery,
-            Pageable pageable);
-
-    @Override
-    @Query("SELECT e FROM Equipment e WHERE e.id IN :ids AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Query("SELECT e FROM Equipment e WHERE e.id IN :ids AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     List<Equipment> findByIdInAndOrganizationId(@Param("ids") List<UUID> ids, @Param("organizationId") UUID organizationId);
 
     @Override
@@ -94,34 +103,59 @@ public interface JpaEquipmentRepository extends JpaRepository<Equipment, UUID>,
     List<Equipment> findBySiteId(@Param("siteId") UUID siteId);
 
     @Override
-    @Query("SELECT COUNT(e) FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Modifying
+    @Query("UPDATE Equipment e SET e.organization.id = :organizationId WHERE e.site.id = :siteId AND e.organization.id <> :organizationId")
+    int updateOrganizationBySiteId(@Param("siteId") UUID siteId, @Param("organizationId") UUID organizationId);
+
+    @Override
+    @Query("SELECT COUNT(e) FROM Equipment e WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL")
     long countByOrganizationId(@Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT COUNT(e) FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.agreementStatus = :agreementStatus AND e.deletedAt IS NULL")
+    @Query("SELECT COUNT(e) FROM Equipment e WHERE e.organization.id = :organizationId AND e.agreementStatus = :agreementStatus AND e.deletedAt IS NULL")
     long countByOrganizationIdAndAgreementStatus(@Param("organizationId") UUID organizationId, @Param("agreementStatus") AgreementStatus agreementStatus);
 
+    // One pass over the tenant's active equipment for the whole dashboard tally
+    @Override
+    @Query("SELECT new com.parctrack.domain.equipment.StoplightCounts(" + STOPLIGHT_COUNTS + ") " +
+           "FROM Equipment e LEFT JOIN e.site s LEFT JOIN s.customer c " +
+           "WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL")
+    StoplightCounts countStoplightStatuses(
+            @Param("organizationId") UUID organizationId,
+            @Param("today") LocalDate today,
+            @Param("warningDate") LocalDate warningDate,
+            @Param("redAgreements") Collection<AgreementStatus> redAgreements);
+
+    // Active equipment grouped by the stoplight inputs, for the in-memory counters
     @Override
-    @Query("SELECT COUNT(e) FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.nextService < :date AND e.deletedAt IS NULL")
-    long countByOrganizationIdAndNextServiceBefore(@Param("organizationId") UUID organizationId, @Param("date") LocalDate date);
+    @Query("SELECT new com.parctrack.domain.equipment.StoplightBucket(" +
+           "COALESCE(c.agreementStatus, e.agreementStatus), e.nextService, COUNT(e)) " +
+           "FROM Equipment e LEFT JOIN e.site s LEFT JOIN s.customer c " +
+           "WHERE e.organization.id = :organizationId AND e.deletedAt IS NULL " +
+           "GROUP BY COALESCE(c.agreementStatus, e.agreementStatus), e.nextService")
+    List<StoplightBucket> findStoplightBuckets(@Param("organizationId") UUID organizationId);
 
+    // Same for the equipment placed at a customer's sites, whose effective agreement is the customer's
     @Override
-    @Query("SELECT COUNT(e) FROM Equipment e WHERE (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.nextService BETWEEN :from AND :to AND e.deletedAt IS NULL")
-    long countByOrganizationIdAndNextServiceBetween(@Param("organizationId") UUID organizationId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+    @Query("SELECT new com.parctrack.domain.equipment.StoplightBucket(c.agreementStatus, e.nextService, COUNT(e)) " +
+           "FROM Equipment e JOIN e.site s JOIN s.customer c " +
+           "WHERE c.id = :customerId AND e.deletedAt IS NULL " +
+           "GROUP BY c.agreementStatus, e.nextService")
+    List<StoplightBucket> findStoplightBucketsByCustomerId(@Param("customerId") UUID customerId);
 
     @Override
-    @Query("SELECT COUNT(e) FROM Equipment e WHERE e.site IS NULL AND e.deletedAt IS NULL AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId)")
+    @Query("SELECT COUNT(e) FROM Equipment e WHERE e.site IS NULL AND e.deletedAt IS NULL AND e.organization.id = :organizationId")
     long countBySiteIdIsNullAndDeletedAtIsNullAndOrganizationId(@Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Equipment e WHERE e.serialNumber = :serialNumber AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Equipment e WHERE e.serialNumber = :serialNumber AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     boolean existsBySerialNumberAndOrganizationId(@Param("serialNumber") String serialNumber, @Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Equipment e WHERE e.custAssetId = :custAssetId AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Equipment e WHERE e.custAssetId = :custAssetId AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     boolean existsByCustAssetIdAndOrganizationIdAndDeletedAtIsNull(@Param("custAssetId") String custAssetId, @Param("organizationId") UUID organizationId);
 
     @Override
-    @Query("SELECT e FROM Equipment e WHERE e.custAssetId = :custAssetId AND (e.organization.id = :organizationId OR e.site.customer.organization.id = :organizationId) AND e.deletedAt IS NULL")
+    @Query("SELECT e FROM Equipment e WHERE e.custAssetId = :custAssetId AND e.organization.id = :organizationId AND e.deletedAt IS NULL")
     Optional<Equipment> findByCustAssetIdAndOrganizationIdAndDeletedAtIsNull(@Param("custAssetId") String custAssetId, @Param("organizationId") UUID organizationId);
 }
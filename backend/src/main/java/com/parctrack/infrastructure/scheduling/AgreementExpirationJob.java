@@ -1,16 +1,23 @@
 package com.parctrack.infrastructure.scheduling;
 
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.customer.Customer;
 import com.parctrack.domain.customer.CustomerRepository;
 import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentRepository;
+import com.parctrack.domain.equipment.StoplightDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class AgreementExpirationJob {
@@ -18,9 +25,14 @@ public class AgreementExpirationJob {
     private static final Logger logger = LoggerFactory.getLogger(AgreementExpirationJob.class);
 
     private final CustomerRepository customerRepository;
+    private final EquipmentRepository equipmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AgreementExpirationJob(CustomerRepository customerRepository) {
+    public AgreementExpirationJob(CustomerRepository customerRepository, EquipmentRepository equipmentRepository,
+                                  ApplicationEventPublisher eventPublisher) {
         this.customerRepository = customerRepository;
+        this.equipmentRepository = equipmentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Scheduled(cron = "0 0 1 * * *") // Daily at 1:00 AM
@@ -35,7 +47,11 @@ public class AgreementExpirationJob {
                 .findByAgreementStatusAndContractEndDateBefore(AgreementStatus.COVERED, today);
 
         int transitionedCount = 0;
+        Map<UUID, StoplightDelta> changedOrganizations = new HashMap<>();
         for (Customer customer : expiredCustomers) {
+            changedOrganizations.computeIfAbsent(customer.getOrganization().getId(), id -> new StoplightDelta())
+                    .changeAgreement(equipmentRepository.findStoplightBucketsByCustomerId(customer.getId()),
+                            AgreementStatus.PENDING);
             customer.setAgreementStatus(AgreementStatus.PENDING);
             customerRepository.save(customer);
             transitionedCount++;
@@ -43,6 +59,9 @@ public class AgreementExpirationJob {
                     customer.getId(), customer.getContractEndDate());
         }
 
+        changedOrganizations.forEach((orgId, delta) ->
+                eventPublisher.publishEvent(new TenantDataChangedEvent(orgId, null, delta)));
+
         logger.info("Agreement expiration check complete. Transitioned {} customers to PENDING status",
                 transitionedCount);
     }
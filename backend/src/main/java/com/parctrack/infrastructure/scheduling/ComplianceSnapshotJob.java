@@ -0,0 +1,40 @@
+package com.parctrack.infrastructure.scheduling;
+
+import com.parctrack.domain.compliance.ComplianceSnapshotRepository;
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.StoplightService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class ComplianceSnapshotJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComplianceSnapshotJob.class);
+
+    private final ComplianceSnapshotRepository complianceSnapshotRepository;
+
+    public ComplianceSnapshotJob(ComplianceSnapshotRepository complianceSnapshotRepository) {
+        this.complianceSnapshotRepository = complianceSnapshotRepository;
+    }
+
+    // After AgreementExpirationJob, so the day's snapshot sees expired agreements as pending
+    @Scheduled(cron = "0 30 1 * * *") // Daily at 1:30 AM
+    @Transactional
+    public void takeSnapshots() {
+        LocalDate today = LocalDate.now();
+        List<String> redAgreements = StoplightService.RED_AGREEMENT_STATUSES.stream()
+                .map(AgreementStatus::name)
+                .toList();
+
+        // Replaces the day's rows, so a rerun (or a second instance) leaves one snapshot per day
+        int replaced = complianceSnapshotRepository.deleteBySnapshotDate(today);
+        int written = complianceSnapshotRepository.insertSnapshots(today, StoplightService.warningDate(today), redAgreements);
+        logger.info("Wrote {} compliance snapshots for {} (replaced {})", written, today, replaced);
+    }
+}
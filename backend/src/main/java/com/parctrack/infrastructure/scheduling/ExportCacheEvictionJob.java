@@ -0,0 +1,33 @@
+package com.parctrack.infrastructure.scheduling;
+
+import com.parctrack.application.equipment.ExportCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+public class ExportCacheEvictionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportCacheEvictionJob.class);
+
+    private final ExportCache exportCache;
+
+    public ExportCacheEvictionJob(ExportCache exportCache) {
+        this.exportCache = exportCache;
+    }
+
+    @Scheduled(cron = "0 */5 * * * *") // Every 5 minutes
+    public void evictExportCache() {
+        try {
+            int evicted = exportCache.evict();
+            if (evicted > 0) {
+                logger.info("Evicted {} cached exports", evicted);
+            }
+        } catch (IOException e) {
+            logger.warn("Export cache eviction failed", e);
+        }
+    }
+}
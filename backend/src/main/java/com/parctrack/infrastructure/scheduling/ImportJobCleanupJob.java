@@ -0,0 +1,34 @@
+package com.parctrack.infrastructure.scheduling;
+
+import com.parctrack.application.equipment.ImportJobService;
+import com.parctrack.infrastructure.config.ImportProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class ImportJobCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobCleanupJob.class);
+
+    private final ImportJobService importJobService;
+    private final ImportProperties importProperties;
+
+    public ImportJobCleanupJob(ImportJobService importJobService, ImportProperties importProperties) {
+        this.importJobService = importJobService;
+        this.importProperties = importProperties;
+    }
+
+    @Scheduled(cron = "0 15 * * * *") // Hourly
+    public void purgeFinishedImportJobs() {
+        Instant cutoff = Instant.now().minus(importProperties.getJobRetentionHours(), ChronoUnit.HOURS);
+        int purged = importJobService.purgeFinishedJobs(cutoff);
+        if (purged > 0) {
+            logger.info("Purged {} finished import jobs and their error reports", purged);
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.parctrack.infrastructure.scheduling;
 
+import com.parctrack.domain.common.TenantDataChangedEvent;
 import com.parctrack.domain.equipment.Equipment;
 import com.parctrack.domain.equipment.EquipmentRepository;
 import com.parctrack.domain.equipment.ServiceRecordRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class ProvisionalCleanupJob {
@@ -19,12 +24,15 @@ public class ProvisionalCleanupJob {
 
     private final EquipmentRepository equipmentRepository;
     private final ServiceRecordRepository serviceRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProvisionalCleanupJob(
             EquipmentRepository equipmentRepository,
-            ServiceRecordRepository serviceRecordRepository) {
+            ServiceRecordRepository serviceRecordRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.equipmentRepository = equipmentRepository;
         this.serviceRecordRepository = serviceRecordRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Scheduled(cron = "0 0 2 * * *") // Nightly at 2:00 AM
@@ -39,7 +47,10 @@ public class ProvisionalCleanupJob {
                 .findByProvisionalTrueAndProvisionalExpiresAtBefore(now);
 
         int deletedCount = 0;
+        Set<UUID> changedOrganizations = new HashSet<>();
         for (Equipment equipment : expiredProvisional) {
+            changedOrganizations.add(equipment.getOrganization().getId());
+
             // Delete associated service records first
             serviceRecordRepository.deleteByEquipmentId(equipment.getId());
 
@@ -50,6 +61,8 @@ public class ProvisionalCleanupJob {
                     equipment.getId(), equipment.getSerialNumber(), equipment.getProvisionalExpiresAt());
         }
 
+        changedOrganizations.forEach(orgId -> eventPublisher.publishEvent(new TenantDataChangedEvent(orgId)));
+
         logger.info("Provisional equipment cleanup complete. Deleted {} expired provisional records",
                 deletedCount);
     }
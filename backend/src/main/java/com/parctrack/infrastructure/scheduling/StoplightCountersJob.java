@@ -0,0 +1,33 @@
+package com.parctrack.infrastructure.scheduling;
+
+import com.parctrack.application.dashboard.StoplightCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+public class StoplightCountersJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoplightCountersJob.class);
+
+    private final StoplightCounters stoplightCounters;
+
+    public StoplightCountersJob(StoplightCounters stoplightCounters) {
+        this.stoplightCounters = stoplightCounters;
+    }
+
+    // Reads roll over lazily as well; this keeps the first dashboard of the day from doing it
+    @Scheduled(cron = "0 0 0 * * *") // Daily at midnight
+    public void rollOver() {
+        stoplightCounters.rollOver(LocalDate.now());
+    }
+
+    @Scheduled(cron = "0 30 * * * *") // Hourly at half past
+    public void reconcile() {
+        logger.debug("Reconciling stoplight counters");
+        stoplightCounters.reconcile(LocalDate.now());
+    }
+}
@@ -1,14 +1,21 @@
 package com.parctrack.infrastructure.web;
 
 import com.parctrack.application.dashboard.DashboardService;
+import com.parctrack.application.dto.dashboard.ComplianceTrendPoint;
+import com.parctrack.application.dto.dashboard.DashboardBreakdown;
 import com.parctrack.application.dto.dashboard.DashboardSummary;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @Tag(name = "Dashboard", description = "Dashboard endpoints")
@@ -25,4 +32,23 @@ public class DashboardController {
     public ResponseEntity<DashboardSummary> getSummary() {
         return ResponseEntity.ok(dashboardService.getSummary());
     }
+
+    @GetMapping("/breakdown")
+    @Operation(summary = "Get equipment status counts per customer, site and equipment type",
+            description = "Worst offenders first (most red, then lowest compliance). Pass top to keep only the first N of each")
+    public ResponseEntity<DashboardBreakdown> getBreakdown(@RequestParam(required = false) Integer top) {
+        return ResponseEntity.ok(dashboardService.getBreakdown(top));
+    }
+
+    @GetMapping("/trend")
+    @Operation(summary = "Get daily compliance trend",
+            description = "Defaults to the last year; at most 3 years. Pass customerId for one customer's trend")
+    public ResponseEntity<List<ComplianceTrendPoint>> getTrend(
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            @RequestParam(required = false) UUID customerId) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        return ResponseEntity.ok(dashboardService.getTrend(start, end, customerId));
+    }
 }
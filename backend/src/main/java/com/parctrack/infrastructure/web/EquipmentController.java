@@ -5,6 +5,8 @@ import com.parctrack.application.equipment.EquipmentService;
 import com.parctrack.domain.equipment.AgreementStatus;
 import com.parctrack.domain.equipment.LifecycleStatus;
 import com.parctrack.domain.equipment.ServiceCycle;
+import com.parctrack.domain.equipment.StoplightStatus;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ErrorResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -30,8 +32,12 @@ public class EquipmentController {
 
     @GetMapping("/lookup")
     @Operation(summary = "Lookup equipment by serial number, asset ID, or QR code")
-    public ResponseEntity<EquipmentDto> lookup(@RequestParam String q) {
-        return ResponseEntity.ok(equipmentService.lookup(q));
+    public ResponseEntity<?> lookup(@RequestParam String q) {
+        // Misses are routine for scanners; answer them without going through the exception handler
+        return equipmentService.lookup(q)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse("NOT_FOUND", "Equipment not found: " + q)));
     }
 
     @GetMapping("/{id}")
@@ -52,6 +58,7 @@ public class EquipmentController {
             @RequestParam(required = false) UUID siteId,
             @RequestParam(required = false) UUID equipmentTypeId,
             @RequestParam(required = false) LifecycleStatus lifecycleStatus,
+            @RequestParam(required = false) StoplightStatus stoplightStatus,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "serialNumber") String sortBy,
@@ -59,13 +66,42 @@ public class EquipmentController {
 
         EquipmentFilterRequest filter = new EquipmentFilterRequest(
                 agreementStatus, serviceCycle, nextServiceFrom, nextServiceTo,
-                searchQuery, customerId, siteId, equipmentTypeId, lifecycleStatus,
+                searchQuery, customerId, siteId, equipmentTypeId, lifecycleStatus, stoplightStatus,
                 page, size, sortBy, sortDirection
         );
 
         return ResponseEntity.ok(equipmentService.list(filter));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "List equipment with filters using cursor pagination",
+            description = "Pass the nextCursor of a page as cursor to get the following page; the cursor keeps the sort it was created with. Size is 1 to 100")
+    public ResponseEntity<EquipmentCursorPage> listByCursor(
+            @RequestParam(required = false) AgreementStatus agreementStatus,
+            @RequestParam(required = false) ServiceCycle serviceCycle,
+            @RequestParam(required = false) LocalDate nextServiceFrom,
+            @RequestParam(required = false) LocalDate nextServiceTo,
+            @RequestParam(required = false) String searchQuery,
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) UUID siteId,
+            @RequestParam(required = false) UUID equipmentTypeId,
+            @RequestParam(required = false) LifecycleStatus lifecycleStatus,
+            @RequestParam(required = false) StoplightStatus stoplightStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "serialNumber") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        EquipmentFilterRequest filter = new EquipmentFilterRequest(
+                agreementStatus, serviceCycle, nextServiceFrom, nextServiceTo,
+                searchQuery, customerId, siteId, equipmentTypeId, lifecycleStatus, stoplightStatus,
+                0, size, sortBy, sortDirection
+        );
+
+        return ResponseEntity.ok(equipmentService.listByCursor(filter, cursor, size, includeTotal));
+    }
+
     @GetMapping("/orphaned")
     @Operation(summary = "List orphaned equipment (no site assigned)")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
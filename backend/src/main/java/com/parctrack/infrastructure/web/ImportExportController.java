@@ -1,66 +1,139 @@
 package com.parctrack.infrastructure.web;
 
-import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.application.dto.equipment.ImportJobStatus;
+import com.parctrack.application.equipment.ExportCache;
+import com.parctrack.application.equipment.ExportFilter;
+import com.parctrack.application.equipment.ExportFormat;
 import com.parctrack.application.equipment.ImportExportService;
+import com.parctrack.application.equipment.ImportJobService;
+import com.parctrack.application.equipment.ImportOptions;
 import com.parctrack.domain.equipment.AgreementStatus;
 import com.parctrack.domain.equipment.ServiceCycle;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/equipment")
 @Tag(name = "Import/Export", description = "Equipment import and export endpoints")
 public class ImportExportController {
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ImportExportService importExportService;
+    private final ImportJobService importJobService;
+    private final ExportCache exportCache;
 
-    public ImportExportController(ImportExportService importExportService) {
+    public ImportExportController(ImportExportService importExportService, ImportJobService importJobService,
+                                  ExportCache exportCache) {
         this.importExportService = importExportService;
+        this.importJobService = importJobService;
+        this.exportCache = exportCache;
     }
 
     @PostMapping("/import")
-    @Operation(summary = "Import equipment from Excel/CSV file")
+    @Operation(summary = "Import equipment from Excel/CSV file (async=true returns a job to poll, bulk=true loads via COPY in one transaction, dryRun=true only validates)")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
-    public ResponseEntity<ImportResult> importEquipment(
+    public ResponseEntity<?> importEquipment(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(defaultValue = "false") boolean upsert) throws IOException {
-        return ResponseEntity.ok(importExportService.importFromFile(file, upsert));
+            @RequestParam(defaultValue = "false") boolean upsert,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestParam(defaultValue = "false") boolean bulk,
+            @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        ImportOptions options = new ImportOptions(upsert, bulk, dryRun);
+        if (async) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(file, options));
+        }
+        if (dryRun) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(importExportService.dryRun(file, upsert));
+        }
+        return ResponseEntity.ok(importExportService.importFromFile(file, options));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Get progress of an asynchronous import job")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ResponseEntity<ImportJobStatus> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(importJobService.getStatus(jobId));
+    }
+
+    @GetMapping("/import/{jobId}/errors")
+    @Operation(summary = "Download the row-level error report of a completed import job")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ResponseEntity<Resource> getImportJobErrors(@PathVariable UUID jobId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(importJobService.getErrorReport(jobId)));
     }
 
     @GetMapping("/export")
-    @Operation(summary = "Export equipment to Excel or PDF")
+    @Operation(summary = "Export equipment to Excel, PDF or CSV (gzip=true compresses CSV)")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
-    public ResponseEntity<byte[]> exportEquipment(
+    public ResponseEntity<StreamingResponseBody> exportEquipment(
             @RequestParam(defaultValue = "xlsx") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
             @RequestParam(required = false) AgreementStatus agreementStatus,
             @RequestParam(required = false) ServiceCycle serviceCycle,
-            @RequestParam(required = false) String searchQuery) throws IOException {
-
-        byte[] data;
-        String contentType;
-        String filename;
-
-        if ("pdf".equalsIgnoreCase(format)) {
-            data = importExportService.exportToPdf(agreementStatus, serviceCycle, searchQuery);
-            contentType = MediaType.APPLICATION_PDF_VALUE;
-            filename = "equipment.pdf";
-        } else {
-            data = importExportService.exportToExcel(agreementStatus, serviceCycle, searchQuery);
-            contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-            filename = "equipment.xlsx";
+            @RequestParam(required = false) String searchQuery,
+            HttpServletRequest request) throws IOException {
+
+        ExportFilter filter = ExportFilter.forCurrentTenant(agreementStatus, serviceCycle, searchQuery);
+        ExportFormat exportFormat = ExportFormat.of(format, gzip);
+        String cacheKey = exportCache.key(filter, exportFormat);
+
+        Optional<Path> cached = exportCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return serveCachedExport(cached.get(), exportFormat, request);
         }
 
+        StreamingResponseBody body = out -> exportCache.write(cacheKey, out,
+                target -> importExportService.export(filter, exportFormat, target));
+
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(data);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.getFilename() + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
+
+    // A streaming body like a fresh export: the return type picks Spring's streaming handler, and
+    // with ResponseEntity<?> it would look for a message converter that cannot write the lambda
+    private ResponseEntity<StreamingResponseBody> serveCachedExport(Path file, ExportFormat format,
+                                                                    HttpServletRequest request) throws IOException {
+        long length = Files.size(file);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + format.getFilename() + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .contentLength(length);
+
+        // Let Tomcat transfer the file with sendfile (no copy through the JVM) once headers are written
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.build();
+        }
+        return response.body(out -> Files.copy(file, out));
     }
 }
@@ -0,0 +1,188 @@
+package com.parctrack.application.dashboard;
+
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentRepository;
+import com.parctrack.domain.equipment.StoplightBucket;
+import com.parctrack.domain.equipment.StoplightCounts;
+import com.parctrack.domain.equipment.StoplightDelta;
+import com.parctrack.domain.equipment.StoplightService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StoplightCountersTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 14);
+
+    @Mock
+    private EquipmentRepository equipmentRepository;
+
+    private StoplightCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new StoplightCounters(equipmentRepository, new StoplightService(), new SimpleMeterRegistry());
+    }
+
+    // The write commits while the recount runs, so the recount already includes it; its delta
+    // must not be applied on top once the recount is installed.
+    @Test
+    void recountRacingACommitIsNotKept() {
+        TenantDataChangedEvent write = newEquipment(TODAY.plusDays(60));
+        List<StoplightBucket> after = List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 11));
+        when(equipmentRepository.findStoplightBuckets(ORG))
+                .thenAnswer(invocation -> {
+                    counters.onTenantDataCommitting(write);
+                    return after;
+                })
+                .thenReturn(after);
+
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        counters.onTenantDataChanged(write);
+        counters.onTenantDataCompleted(write);
+
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        verify(equipmentRepository, times(2)).findStoplightBuckets(ORG);
+    }
+
+    // Announced before the recount started and committed before it read: still pending at install
+    @Test
+    void recountStartedWhileAWriteIsPendingIsNotKept() {
+        TenantDataChangedEvent write = newEquipment(TODAY.plusDays(60));
+        List<StoplightBucket> after = List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 11));
+        when(equipmentRepository.findStoplightBuckets(ORG)).thenReturn(after);
+
+        counters.onTenantDataCommitting(write);
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        counters.onTenantDataChanged(write);
+        counters.onTenantDataCompleted(write);
+
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        verify(equipmentRepository, times(2)).findStoplightBuckets(ORG);
+    }
+
+    @Test
+    void committedDeltaIsAppliedToLoadedCounters() {
+        when(equipmentRepository.findStoplightBuckets(ORG))
+                .thenReturn(List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 10)));
+        counters.get(ORG, TODAY);
+
+        TenantDataChangedEvent write = newEquipment(TODAY.minusDays(1));
+        counters.onTenantDataCommitting(write);
+        counters.onTenantDataChanged(write);
+        counters.onTenantDataCompleted(write);
+
+        assertThat(counters.get(ORG, TODAY)).isEqualTo(new StoplightCounts(11, 10, 0, 1, 1, 0));
+        verify(equipmentRepository, times(1)).findStoplightBuckets(ORG);
+    }
+
+    @Test
+    void rolledBackWriteStopsBlockingLoads() {
+        when(equipmentRepository.findStoplightBuckets(ORG))
+                .thenReturn(List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 10)));
+
+        TenantDataChangedEvent write = newEquipment(TODAY);
+        counters.onTenantDataCommitting(write);
+        counters.onTenantDataCompleted(write);
+
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(10);
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(10);
+        verify(equipmentRepository, times(1)).findStoplightBuckets(ORG);
+    }
+
+    // Published outside a transaction, the write committed before the event; recount instead
+    @Test
+    void deltaWithoutTransactionUnloadsTheTenant() {
+        when(equipmentRepository.findStoplightBuckets(ORG))
+                .thenReturn(List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 10)))
+                .thenReturn(List.of(bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 11)));
+        counters.get(ORG, TODAY);
+
+        counters.onTenantDataChanged(newEquipment(TODAY.plusDays(60)));
+
+        assertThat(counters.get(ORG, TODAY).total()).isEqualTo(11);
+        verify(equipmentRepository, times(2)).findStoplightBuckets(ORG);
+    }
+
+    @Test
+    void rollToReclassifiesDueAndWarningDates() {
+        when(equipmentRepository.findStoplightBuckets(ORG)).thenReturn(List.of(
+                bucket(AgreementStatus.COVERED, TODAY, 2),
+                bucket(AgreementStatus.COVERED, StoplightService.warningDate(TODAY.plusDays(1)), 3),
+                bucket(AgreementStatus.COVERED, TODAY.plusDays(60), 5)));
+
+        assertThat(counters.get(ORG, TODAY)).isEqualTo(new StoplightCounts(10, 8, 2, 0, 0, 2));
+        // Due today turns overdue and red; the new last warning day turns yellow
+        assertThat(counters.get(ORG, TODAY.plusDays(1))).isEqualTo(new StoplightCounts(10, 5, 3, 2, 2, 3));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 15, 16, 31, 32, 90, -1, -20})
+    void rollToMatchesAFreshEvaluation(int days) {
+        List<StoplightBucket> buckets = sampleBuckets();
+        when(equipmentRepository.findStoplightBuckets(ORG)).thenReturn(buckets);
+        LocalDate later = TODAY.plusDays(days);
+
+        counters.get(ORG, TODAY);
+        StoplightCounts rolled = counters.get(ORG, later);
+
+        StoplightCounters fresh = new StoplightCounters(equipmentRepository, new StoplightService(),
+                new SimpleMeterRegistry());
+        assertThat(rolled).isEqualTo(fresh.get(ORG, later));
+    }
+
+    @Test
+    void rollOverStepsLoadedTenantsOneDayAtATime() {
+        List<StoplightBucket> buckets = sampleBuckets();
+        when(equipmentRepository.findStoplightBuckets(ORG)).thenReturn(buckets);
+        counters.get(ORG, TODAY);
+
+        for (int day = 1; day <= 40; day++) {
+            counters.rollOver(TODAY.plusDays(day));
+        }
+
+        StoplightCounters fresh = new StoplightCounters(equipmentRepository, new StoplightService(),
+                new SimpleMeterRegistry());
+        assertThat(counters.get(ORG, TODAY.plusDays(40))).isEqualTo(fresh.get(ORG, TODAY.plusDays(40)));
+    }
+
+    private static List<StoplightBucket> sampleBuckets() {
+        List<StoplightBucket> buckets = new ArrayList<>();
+        for (int offset = -5; offset <= 60; offset += 3) {
+            buckets.add(bucket(AgreementStatus.COVERED, TODAY.plusDays(offset), offset + 10));
+            buckets.add(bucket(AgreementStatus.PENDING, TODAY.plusDays(offset), 2));
+        }
+        buckets.add(bucket(AgreementStatus.COVERED, null, 7));
+        buckets.add(bucket(AgreementStatus.OUT_OF_SCOPE, TODAY.plusDays(20), 4));
+        return buckets;
+    }
+
+    private static TenantDataChangedEvent newEquipment(LocalDate nextService) {
+        return TenantDataChangedEvent.forEquipment(ORG, Set.of(UUID.randomUUID()),
+                new StoplightDelta().add(bucket(AgreementStatus.COVERED, nextService, 1)));
+    }
+
+    private static StoplightBucket bucket(AgreementStatus agreementStatus, LocalDate nextService, long count) {
+        return new StoplightBucket(agreementStatus, nextService, count);
+    }
+}
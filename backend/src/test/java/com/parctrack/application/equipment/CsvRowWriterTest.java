@@ -0,0 +1,51 @@
+package com.parctrack.application.equipment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRowWriterTest {
+
+    @Test
+    void writesPlainFieldsUnquoted() throws IOException {
+        assertThat(write("SN-1", "ASSET 7")).isEqualTo("SN-1,ASSET 7\r\n");
+    }
+
+    @Test
+    void writesNullAndEmptyAsEmptyFields() throws IOException {
+        assertThat(write(null, "", "x")).isEqualTo(",,x\r\n");
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorOrLineBreak() throws IOException {
+        assertThat(write("a,b", "line\nbreak", "cr\rlf")).isEqualTo("\"a,b\",\"line\nbreak\",\"cr\rlf\"\r\n");
+    }
+
+    @Test
+    void doublesEmbeddedQuotes() throws IOException {
+        assertThat(write("say \"hi\"", "\"")).isEqualTo("\"say \"\"hi\"\"\",\"\"\"\"\r\n");
+    }
+
+    @Test
+    void startsEachRowWithoutSeparator() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvRowWriter csv = new CsvRowWriter(out);
+        csv.field("a").field(1).endRow();
+        csv.field("b").field((Object) null).endRow();
+
+        assertThat(out.toString()).isEqualTo("a,1\r\nb,\r\n");
+    }
+
+    private static String write(String... values) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvRowWriter csv = new CsvRowWriter(out);
+        for (String value : values) {
+            csv.field(value);
+        }
+        csv.endRow();
+        return out.toString();
+    }
+}
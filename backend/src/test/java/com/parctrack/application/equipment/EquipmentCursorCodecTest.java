@@ -0,0 +1,102 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.equipment.AgreementStatus;
+import com.parctrack.domain.equipment.EquipmentKeyset;
+import com.parctrack.domain.equipment.EquipmentSortKey;
+import com.parctrack.domain.equipment.LifecycleStatus;
+import com.parctrack.domain.equipment.ServiceCycle;
+import com.parctrack.domain.equipment.StoplightStatus;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EquipmentCursorCodecTest {
+
+    private static final UUID ID = UUID.fromString("3f6c1a52-8d0e-4b7a-9c21-5e4d3b2a1f00");
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 14);
+
+    @ParameterizedTest
+    @EnumSource(EquipmentSortKey.class)
+    void roundTripsEverySortKey(EquipmentSortKey sortKey) {
+        EquipmentKeyset keyset = new EquipmentKeyset(sortKey, true, sampleValue(sortKey), ID, TODAY);
+
+        assertThat(EquipmentCursorCodec.decode(EquipmentCursorCodec.encode(keyset))).isEqualTo(keyset);
+    }
+
+    @Test
+    void roundTripsNullValue() {
+        EquipmentKeyset keyset = new EquipmentKeyset(EquipmentSortKey.NEXT_SERVICE, false, null, ID, TODAY);
+
+        assertThat(EquipmentCursorCodec.decode(EquipmentCursorCodec.encode(keyset))).isEqualTo(keyset);
+    }
+
+    @Test
+    void roundTripsValueContainingSeparator() {
+        EquipmentKeyset keyset = new EquipmentKeyset(EquipmentSortKey.SERIAL_NUMBER, false, "SN|1=2|", ID, TODAY);
+
+        assertThat(EquipmentCursorCodec.decode(EquipmentCursorCodec.encode(keyset))).isEqualTo(keyset);
+    }
+
+    @Test
+    void rejectsCursorWithoutDate() {
+        String v1 = token("1|serialNumber|asc|" + ID + "|=SN-1");
+
+        assertInvalid(v1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "3|serialNumber|asc|%s|2026-03-14|=SN-1",
+            "2|serialNumber|asc|%s|2026-03-14",
+            "2|noSuchColumn|asc|%s|2026-03-14|=SN-1",
+            "2|serialNumber|sideways|%s|2026-03-14|=SN-1",
+            "2|serialNumber|asc|not-a-uuid|2026-03-14|=SN-1",
+            "2|serialNumber|asc|%s||=SN-1",
+            "2|serialNumber|asc|%s|2026-13-40|=SN-1",
+            "2|nextService|asc|%s|2026-03-14|=tomorrow",
+            "2|agreementStatus|asc|%s|2026-03-14|=NOT_A_STATUS"
+    })
+    void rejectsTamperedCursor(String token) {
+        assertInvalid(token(token.formatted(ID)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "AAAA"})
+    void rejectsGarbage(String cursor) {
+        assertInvalid(cursor);
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> EquipmentCursorCodec.decode(cursor))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object sampleValue(EquipmentSortKey sortKey) {
+        return switch (sortKey) {
+            case SERIAL_NUMBER -> "SN-0042";
+            case CUST_ASSET_ID -> "ASSET 7";
+            case AGREEMENT_STATUS -> AgreementStatus.values()[0];
+            case SERVICE_CYCLE -> ServiceCycle.MONTHLY;
+            case LIFECYCLE_STATUS -> LifecycleStatus.values()[0];
+            case NEXT_SERVICE -> LocalDate.of(2026, 4, 1);
+            case LAST_SERVICE, CREATED_AT, UPDATED_AT -> Instant.parse("2026-03-01T08:15:30.123456Z");
+            case STOPLIGHT_STATUS -> StoplightStatus.values()[0];
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.application.audit.AuditService;
+import com.parctrack.application.dto.equipment.EquipmentCursorPage;
+import com.parctrack.application.dto.equipment.EquipmentFilterRequest;
+import com.parctrack.application.dto.equipment.UpdateEquipmentRequest;
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.domain.equipment.*;
+import com.parctrack.domain.organization.Organization;
+import com.parctrack.domain.organization.OrganizationRepository;
+import com.parctrack.domain.site.SiteRepository;
+import com.parctrack.domain.user.UserRepository;
+import com.parctrack.infrastructure.security.TenantContext;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EquipmentServiceTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+
+    @Mock
+    private EquipmentRepository equipmentRepository;
+    @Mock
+    private OrganizationRepository organizationRepository;
+    @Mock
+    private SiteRepository siteRepository;
+    @Mock
+    private EquipmentTypeRepository equipmentTypeRepository;
+    @Mock
+    private ServiceRecordRepository serviceRecordRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private AuditService auditService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EquipmentLookupCache lookupCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EquipmentService equipmentService;
+
+    @BeforeEach
+    void setUp() {
+        equipmentService = new EquipmentService(equipmentRepository, organizationRepository, siteRepository,
+                equipmentTypeRepository, serviceRecordRepository, userRepository, new StoplightService(),
+                auditService, eventPublisher, lookupCache, transactionManager);
+        TenantContext.setCurrentTenant(ORG);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, EquipmentService.MAX_CURSOR_PAGE_SIZE + 1})
+    void listByCursorRejectsSizeOutOfRange(int size) {
+        assertThatThrownBy(() -> equipmentService.listByCursor(filter(size), null, size, false))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Page size");
+        verifyNoInteractions(equipmentRepository);
+    }
+
+    @Test
+    void listByCursorReturnsSinglePageWithNextCursor() {
+        when(equipmentRepository.findPageAfter(eq(ORG), any(), eq(EquipmentSortKey.SERIAL_NUMBER), anyBoolean(),
+                isNull(), eq(2)))
+                .thenReturn(List.of(equipment("SN-1"), equipment("SN-2")));
+
+        EquipmentCursorPage page = equipmentService.listByCursor(filter(1), null, 1, false);
+
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.content().get(0).serialNumber()).isEqualTo("SN-1");
+        assertThat(page.size()).isEqualTo(1);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(page.totalElements()).isNull();
+    }
+
+    @Test
+    void listByCursorAcceptsMaximumSize() {
+        int size = EquipmentService.MAX_CURSOR_PAGE_SIZE;
+        when(equipmentRepository.findPageAfter(eq(ORG), any(), any(), anyBoolean(), isNull(), eq(size + 1)))
+                .thenReturn(List.of(equipment("SN-1")));
+
+        EquipmentCursorPage page = equipmentService.listByCursor(filter(size), null, size, false);
+
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void updateInvalidatesWholeTenantWhenAssetIdChanges() {
+        Equipment equipment = equipment("SN-1");
+        equipment.setCustAssetId("A-1");
+        stubUpdate(equipment);
+        when(equipmentRepository.findByCustAssetIdAndOrganizationIdAndDeletedAtIsNull("A-2", ORG))
+                .thenReturn(Optional.empty());
+
+        equipmentService.update(equipment.getId(), new UpdateEquipmentRequest("A-2", null, null, null, null));
+
+        TenantDataChangedEvent event = publishedEvent();
+        assertThat(event.organizationId()).isEqualTo(ORG);
+        assertThat(event.equipmentIds()).isNull();
+        assertThat(event.stoplightDelta()).isNotNull();
+    }
+
+    @Test
+    void updateInvalidatesOnlyTheEquipmentWhenAssetIdIsUnchanged() {
+        Equipment equipment = equipment("SN-1");
+        equipment.setCustAssetId("A-1");
+        stubUpdate(equipment);
+
+        equipmentService.update(equipment.getId(),
+                new UpdateEquipmentRequest("A-1", null, ServiceCycle.MONTHLY, null, null));
+
+        assertThat(publishedEvent().equipmentIds()).isEqualTo(Set.of(equipment.getId()));
+    }
+
+    private void stubUpdate(Equipment equipment) {
+        when(equipmentRepository.findByIdAndOrganizationId(equipment.getId(), ORG))
+                .thenReturn(Optional.of(equipment));
+        when(equipmentRepository.save(equipment)).thenReturn(equipment);
+    }
+
+    private TenantDataChangedEvent publishedEvent() {
+        ArgumentCaptor<TenantDataChangedEvent> event = ArgumentCaptor.forClass(TenantDataChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private static EquipmentFilterRequest filter(int size) {
+        return new EquipmentFilterRequest(null, null, null, null, null, null, null, null, null, null,
+                0, size, null, null);
+    }
+
+    private static Equipment equipment(String serialNumber) {
+        Equipment equipment = new Equipment(new Organization("org"), serialNumber, AgreementStatus.values()[0],
+                ServiceCycle.MONTHLY);
+        equipment.setId(UUID.randomUUID());
+        return equipment;
+    }
+}
@@ -0,0 +1,74 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.domain.common.TenantDataChangedEvent;
+import com.parctrack.infrastructure.config.ExportProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportCacheTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private ExportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ExportProperties properties = new ExportProperties();
+        properties.setCacheDirectory(directory.toString());
+        properties.setCacheMaxSizeMb(0);
+        properties.setCacheMaxAgeMinutes(60);
+        cache = new ExportCache(properties);
+        cache.init();
+    }
+
+    @Test
+    void keyUsesNormalizedSearchPattern() {
+        String upper = cache.key(new ExportFilter(ORG, null, null, " ABC "), ExportFormat.CSV);
+        String lower = cache.key(new ExportFilter(ORG, null, null, "abc"), ExportFormat.CSV);
+
+        assertThat(upper).isEqualTo(lower);
+        assertThat(cache.key(new ExportFilter(ORG, null, null, "abd"), ExportFormat.CSV)).isNotEqualTo(lower);
+    }
+
+    @Test
+    void keyChangesWithTenantDataVersion() {
+        ExportFilter filter = new ExportFilter(ORG, null, null, null);
+        String before = cache.key(filter, ExportFormat.CSV);
+
+        cache.onTenantDataChanged(new TenantDataChangedEvent(ORG));
+
+        assertThat(cache.key(filter, ExportFormat.CSV)).isNotEqualTo(before);
+    }
+
+    @Test
+    void evictionSkipsEntriesServedRecently() throws Exception {
+        String served = cache.key(new ExportFilter(ORG, null, null, "served"), ExportFormat.CSV);
+        String idle = cache.key(new ExportFilter(ORG, null, null, "idle"), ExportFormat.CSV);
+        cache.write(served, OutputStream.nullOutputStream(), out -> out.write("a".getBytes(StandardCharsets.UTF_8)));
+        cache.write(idle, OutputStream.nullOutputStream(), out -> out.write("b".getBytes(StandardCharsets.UTF_8)));
+        Path idleFile = directory.resolve(idle + ".export");
+        Files.setLastModifiedTime(idleFile, FileTime.from(Instant.now().minus(Duration.ofMinutes(5))));
+
+        // Over the size limit (0 MB), but the served entry is still within its serve window
+        assertThat(cache.get(served)).isPresent();
+        assertThat(cache.evict()).isEqualTo(1);
+
+        assertThat(directory.resolve(served + ".export")).exists();
+        assertThat(idleFile).doesNotExist();
+    }
+}
@@ -0,0 +1,84 @@
+package com.parctrack.application.equipment;
+
+import com.parctrack.application.dto.equipment.ImportResult;
+import com.parctrack.infrastructure.config.ImportProperties;
+import com.parctrack.infrastructure.security.TenantContext;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    private static final ImportOptions OPTIONS = new ImportOptions(false, false, false);
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ImportExportService importExportService;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void setUp() {
+        ImportProperties properties = new ImportProperties();
+        properties.setJobDirectory(dir.toString());
+        properties.setJobWorkers(1);
+        properties.setJobQueueCapacity(1);
+        importJobService = new ImportJobService(importExportService, properties);
+        TenantContext.setCurrentTenant(UUID.randomUUID());
+        TenantContext.setCurrentUserId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        importJobService.shutdown();
+        TenantContext.clear();
+    }
+
+    @Test
+    void fullQueueIsReportedAsRetryable() throws Exception {
+        when(importExportService.importFromPath(any(), any(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new ImportResult(0, 0, 0, List.of());
+        });
+        importJobService.submit(upload(), OPTIONS);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        importJobService.submit(upload(), OPTIONS);
+
+        assertThatThrownBy(() -> importJobService.submit(upload(), OPTIONS))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(ImportJobService.QUEUE_FULL_RETRY_AFTER));
+        // Only the running and the queued job keep their upload
+        try (var files = Files.list(dir)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".upload")).count()).isEqualTo(2);
+        }
+    }
+
+    private static MockMultipartFile upload() {
+        return new MockMultipartFile("file", "equipment.csv", "text/csv", "serial_number\nSN-1\n".getBytes());
+    }
+}
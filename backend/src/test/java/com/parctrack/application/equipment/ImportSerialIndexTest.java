@@ -0,0 +1,45 @@
+package com.parctrack.application.equipment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportSerialIndexTest {
+
+    @Test
+    void reportsWhetherSerialMatchesExistingEquipment() {
+        ImportSerialIndex index = new ImportSerialIndex(List.of("SN-1", "SN-2"));
+
+        assertThat(index.register("SN-1")).isTrue();
+        assertThat(index.register("SN-3")).isFalse();
+    }
+
+    @Test
+    void rejectsSerialRepeatedInFile() {
+        ImportSerialIndex index = new ImportSerialIndex(List.of());
+        index.register("SN-1");
+
+        assertThatThrownBy(() -> index.register("SN-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("SN-1");
+    }
+
+    @Test
+    void rejectsExistingSerialRepeatedInFile() {
+        ImportSerialIndex index = new ImportSerialIndex(List.of("SN-1"));
+        index.register("SN-1");
+
+        assertThatThrownBy(() -> index.register("SN-1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesSerialsExactly() {
+        ImportSerialIndex index = new ImportSerialIndex(List.of("SN-1"));
+
+        assertThat(index.register("sn-1")).isFalse();
+        assertThat(index.register("SN-1")).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.parctrack.application.equipment;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingExcelReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsDateCellsAsIsoDates() throws IOException {
+        Path file = workbook((workbook, sheet) -> {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yy"));
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("SN-1");
+            row.createCell(1).setCellValue(LocalDate.of(2024, 1, 15));
+            row.getCell(1).setCellStyle(dateStyle);
+        });
+
+        assertThat(read(file).get(1)).containsExactly("SN-1", "2024-01-15");
+    }
+
+    @Test
+    void readsWholeNumbersWithoutDecimals() throws IOException {
+        Path file = workbook((workbook, sheet) -> sheet.createRow(1).createCell(0).setCellValue(1234567890123d));
+
+        assertThat(read(file).get(1)).containsExactly("1234567890123");
+    }
+
+    @Test
+    void leavesSkippedCellsNull() throws IOException {
+        Path file = workbook((workbook, sheet) -> {
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("SN-1");
+            row.createCell(2).setCellValue("COVERED");
+        });
+
+        assertThat(read(file).get(1)).containsExactly("SN-1", null, "COVERED");
+    }
+
+    private interface SheetWriter {
+        void write(XSSFWorkbook workbook, Sheet sheet);
+    }
+
+    private Path workbook(SheetWriter writer) throws IOException {
+        Path file = dir.resolve("import.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("serial_number");
+            writer.write(workbook, sheet);
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private static List<String[]> read(Path file) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        StreamingExcelReader.read(file, (rowNumber, values) -> rows.add(values));
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package com.parctrack.domain.equipment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EquipmentSearchCriteriaTest {
+
+    @Test
+    void searchPatternIsNullForMissingTerm() {
+        assertThat(EquipmentSearchCriteria.searchPattern(null)).isNull();
+        assertThat(EquipmentSearchCriteria.searchPattern("  ")).isNull();
+    }
+
+    @Test
+    void searchPatternLowerCasesAndTrims() {
+        assertThat(EquipmentSearchCriteria.searchPattern("  SN-4F2A ")).isEqualTo("%sn-4f2a%");
+    }
+
+    @Test
+    void searchPatternEscapesWildcards() {
+        assertThat(EquipmentSearchCriteria.searchPattern("50%")).isEqualTo("%50\\%%");
+        assertThat(EquipmentSearchCriteria.searchPattern("a_b")).isEqualTo("%a\\_b%");
+    }
+
+    @Test
+    void searchPatternEscapesEscapeCharacterFirst() {
+        assertThat(EquipmentSearchCriteria.searchPattern("a\\b")).isEqualTo("%a\\\\b%");
+        assertThat(EquipmentSearchCriteria.searchPattern("\\%")).isEqualTo("%\\\\\\%%");
+    }
+}
@@ -0,0 +1,28 @@
+package com.parctrack.infrastructure.web;
+
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ErrorResponse;
+import com.parctrack.infrastructure.web.GlobalExceptionHandler.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void serviceUnavailableCarriesRetryAfter() {
+        ResponseEntity<ErrorResponse> response = handler.handleServiceUnavailableException(
+                new ServiceUnavailableException("Busy", Duration.ofSeconds(30)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(response.getBody().code()).isEqualTo("SERVICE_UNAVAILABLE");
+        assertThat(response.getBody().message()).isEqualTo("Busy");
+    }
+}